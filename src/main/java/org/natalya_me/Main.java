@@ -1,33 +1,62 @@
 package org.natalya_me;
 
-import org.natalya_me.algorithm.Graph;
+import org.natalya_me.algorithm.GraphFactory;
 import org.natalya_me.algorithm.LongestRouteSearch;
+import org.natalya_me.distributed.RouteCoordinator;
+import org.natalya_me.distributed.RouteWorker;
 import org.natalya_me.util.FileReader;
 import org.natalya_me.util.ImmutablePair;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class Main {
 
     private static final String DEFAULT_OUTPUT_FILE_NAME = "output.txt";
+    private static final String WORKER_OPTION = "--worker";
+    private static final String WORKERS_OPTION = "--workers";
 
     public static void main(String[] args) {
+        // Режим рабочего процесса: java -jar longest_route.jar --worker <port>
+        if (args.length > 0 && WORKER_OPTION.equals(args[0])) {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Не передан порт рабочего процесса");
+            }
+            runWorker(parsePort(args[1]));
+            return;
+        }
+
+        // Режим координатора: java -jar longest_route.jar --workers <host:port,...> <input> [output]
+        List<InetSocketAddress> workers = new ArrayList<>();
+        // индекс аргумента с путем до входного файла; за ним следует необязательный путь до выходного файла
+        int inputArgIndex = 0;
+        if (args.length > 0 && WORKERS_OPTION.equals(args[0])) {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Не передан список адресов рабочих процессов");
+            }
+            workers = parseWorkerAddresses(args[1]);
+            inputArgIndex = 2;
+        }
+
         // Получение пути до входного файла
-        if (args.length < 1) {
+        if (args.length <= inputArgIndex) {
             throw new IllegalArgumentException("Не передан путь до входного файла");
         }
-        String inputFilePath = args[0];
+        String inputFilePath = args[inputArgIndex];
 
-        // Чтение данных и поиск самого длинного маршрута
-        Graph<String> graph = createGraph(inputFilePath);
-        List<ImmutablePair<String, String>> longestRoute = LongestRouteSearch.findLongestRoute(graph);
+        // Чтение данных и поиск самого длинного маршрута; координатор читает файл сам, не загружая его в память целиком
+        List<ImmutablePair<String, String>> longestRoute = workers.isEmpty()
+                ? LongestRouteSearch.findLongestRoute(GraphFactory.createRouteGraph(FileReader.readCsvDataFromFile(inputFilePath)))
+                : RouteCoordinator.findLongestRoute(inputFilePath, workers);
 
         // Запись результата в выходной файл
-        String outputFilePath = args.length > 1 ? args[1] : DEFAULT_OUTPUT_FILE_NAME;
+        String outputFilePath = args.length > inputArgIndex + 1 ? args[inputArgIndex + 1] : DEFAULT_OUTPUT_FILE_NAME;
         File file = new File(outputFilePath);
         if (file.isDirectory()) {
             file = new File(file, DEFAULT_OUTPUT_FILE_NAME);
@@ -38,22 +67,38 @@ public class Main {
         writeResultToFile(file, resultData);
     }
 
-    // Создает граф по данным из файла со строками формата:
-    // <идентификатор здания>;<адрес здания>;<идентификатор следующего здания маршрута>
-    private static Graph<String> createGraph(String inputFilePath) {
-        List<String[]> input = FileReader.readCsvDataFromFile(inputFilePath);
-        Graph<String> graph = new Graph<>();
-        for (String[] dataLine: input) {
-            try {
-                graph.addOrUpdateNode(dataLine[0], dataLine[1]);
-                if (dataLine.length > 2) {
-                    graph.addArc(dataLine[0], dataLine[2]);
-                }
-            } catch (IndexOutOfBoundsException ex) {
-                throw new IllegalArgumentException("Неверный формат данных входного файла");
+    private static void runWorker(int port) {
+        try (RouteWorker worker = new RouteWorker(port)) {
+            worker.serve();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Разбирает список адресов формата host:port, разделенных запятыми
+    private static List<InetSocketAddress> parseWorkerAddresses(String addresses) {
+        List<InetSocketAddress> result = new ArrayList<>();
+        for (String address: addresses.split(",")) {
+            int separator = address.lastIndexOf(':');
+            if (separator <= 0 || separator == address.length() - 1) {
+                throw new IllegalArgumentException(String.format("Неверный адрес рабочего процесса: %s", address));
             }
+            result.add(new InetSocketAddress(address.substring(0, separator), parsePort(address.substring(separator + 1))));
+        }
+        return result;
+    }
+
+    private static int parsePort(String value) {
+        int port;
+        try {
+            port = Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            port = -1;
+        }
+        if (port < 1 || port > 65535) {
+            throw new IllegalArgumentException(String.format("Неверный номер порта: %s", value));
         }
-        return graph;
+        return port;
     }
 
     private static void writeResultToFile(File file, String data) {
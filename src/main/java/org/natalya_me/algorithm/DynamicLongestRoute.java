@@ -0,0 +1,349 @@
+package org.natalya_me.algorithm;
+
+import org.natalya_me.util.ImmutablePair;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Класс, поддерживающий самый длинный маршрут в графе при его изменениях: добавлении и удалении вершин и дуг,
+ * перенаправлении дуг. После подключения к графу добавление вершины, добавление, удаление и перенаправление дуги
+ * обрабатываются за ожидаемое время O(log n), удаление вершины - за O(k log n), где k - число входящих в нее дуг,
+ * так как каждая входящая дуга удаляется отдельно. Самый длинный маршрут возвращается без повторного обхода графа.
+ * <p>
+ * Граф рассматривается как лес деревьев, корнями которых являются висячие вершины, а потомками вершины - предыдущие вершины.
+ * Длина маршрута из вершины равна ее глубине в дереве плюс 1, поэтому самый длинный маршрут начинается в самой глубокой вершине.
+ * Эйлеровы обходы всех деревьев хранятся в одной последовательности, представленной декартовым деревом по неявному ключу:
+ * каждой вершине соответствуют токены входа и выхода, поддерево вершины занимает отрезок между ними.
+ * Токены входа хранят глубину вершины, узлы декартова дерева - максимум глубины в своем поддереве и отложенную
+ * добавку глубины, так что перенос поддерева под другую вершину сводится к вырезанию отрезка, изменению глубин
+ * на нем на одну и ту же величину и вставке отрезка в новое место.
+ * <p>
+ * Одновременно к графу может быть подключен только один экземпляр класса.
+ *
+ * @param <T> тип данных, содержащихся в вершине
+ */
+public final class DynamicLongestRoute<T> {
+
+    // Глубина токенов выхода и максимум глубины пустого отрезка
+    private static final int NO_DEPTH = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Graph<T> graph;
+    private final Random random = new Random();
+    // Токены входа и выхода по индексам вершин графа
+    private Token<T>[] openTokens;
+    private Token<T>[] closeTokens;
+    // Корень декартова дерева, содержащего эйлеровы обходы всех деревьев графа
+    private Token<T> root;
+    private boolean attached;
+
+    // Результаты операции split, хранятся в полях во избежание создания объектов
+    private Token<T> splitLeft;
+    private Token<T> splitRight;
+
+    /**
+     * Строит эйлеровы обходы для текущего состояния графа и подключается к нему, после чего изменения графа
+     * отражаются в найденном самом длинном маршруте. Построение выполняется за ожидаемое время O(n log n).
+     *
+     * @param graph   экземпляр графа
+     */
+    public DynamicLongestRoute(Graph<T> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Граф не может быть null.");
+        }
+        graph.attachRouteTracker(this);
+        this.graph = graph;
+        this.attached = true;
+        int capacity = Math.max(INITIAL_CAPACITY, graph.getNodeIndexBound());
+        openTokens = newTokenArray(capacity);
+        closeTokens = newTokenArray(capacity);
+        for (Graph.Node<T> leaf: graph.getLeafNodes()) {
+            appendTour(leaf);
+        }
+    }
+
+    /**
+     * Возвращает длину (число вершин) самого длинного маршрута в графе, либо 0, если граф пуст.
+     */
+    public int getLongestRouteLength() {
+        checkAttached();
+        return root == null ? 0 : root.maxDepth + 1;
+    }
+
+    /**
+     * Возвращает самый длинный маршрут в графе. Если в графе несколько маршрутов одинаковой длины, возвращается любой из них.
+     *
+     * @return   список пар (id, data) для вершин маршрута в правильном порядке, либо пустой список, если граф пуст
+     */
+    public List<ImmutablePair<String, T>> getLongestRoute() {
+        checkAttached();
+        if (root == null) return Collections.emptyList();
+        return LongestRouteSearch.fillResultList(findDeepestNode());
+    }
+
+    /**
+     * Отключается от графа. После отключения изменения графа не отслеживаются, а методы экземпляра недоступны.
+     */
+    public void detach() {
+        if (attached) {
+            graph.detachRouteTracker(this);
+            attached = false;
+            root = null;
+            openTokens = null;
+            closeTokens = null;
+        }
+    }
+
+    // Методы, вызываемые графом при его изменении
+
+    void nodeAdded(Graph.Node<T> node) {
+        ensureCapacity(node.getIndex() + 1);
+        Token<T> open = new Token<>(random.nextInt(), node, 0);
+        Token<T> close = new Token<>(random.nextInt(), node, NO_DEPTH);
+        openTokens[node.getIndex()] = open;
+        closeTokens[node.getIndex()] = close;
+        root = merge(root, merge(open, close));
+    }
+
+    // Вызывается для вершины, у которой нет ни входящих, ни исходящих дуг
+    void nodeRemoved(Graph.Node<T> node) {
+        int position = position(openTokens[node.getIndex()]);
+        extract(position, position + 1);
+        openTokens[node.getIndex()] = null;
+        closeTokens[node.getIndex()] = null;
+    }
+
+    // Вызывается после установления дуги from -> to; до этого вершина from была корнем своего дерева
+    void arcAdded(Graph.Node<T> from, Graph.Node<T> to) {
+        Token<T> subtree = extractSubtree(from);
+        Token<T> parentOpen = openTokens[to.getIndex()];
+        applyDepth(subtree, depth(parentOpen) + 1);
+        split(root, position(parentOpen) + 1);
+        Token<T> right = splitRight;
+        root = merge(merge(splitLeft, subtree), right);
+    }
+
+    // Вызывается до удаления исходящей дуги вершины node; поддерево вершины становится отдельным деревом
+    void arcRemoved(Graph.Node<T> node) {
+        int nodeDepth = depth(openTokens[node.getIndex()]);
+        Token<T> subtree = extractSubtree(node);
+        applyDepth(subtree, -nodeDepth);
+        root = merge(root, subtree);
+    }
+
+    // Проверяет, достижима ли вершина to из вершины from по дугам графа, т.е. лежит ли from в поддереве to
+    boolean isReachable(Graph.Node<T> from, Graph.Node<T> to) {
+        int fromPosition = position(openTokens[from.getIndex()]);
+        return position(openTokens[to.getIndex()]) <= fromPosition && fromPosition <= position(closeTokens[to.getIndex()]);
+    }
+
+    /**
+     * Добавляет в конец последовательности эйлеров обход дерева с корнем в вершине leaf.
+     * Обход выполняется без рекурсии: в стеке хранятся токены, токен входа при извлечении заменяется токеном выхода
+     * и токенами входа предыдущих вершин.
+     */
+    private void appendTour(Graph.Node<T> leaf) {
+        Deque<Token<T>> stack = new ArrayDeque<>();
+        stack.push(createTokens(leaf, 0));
+        while (!stack.isEmpty()) {
+            Token<T> current = stack.pop();
+            root = merge(root, current);
+            if (current.isOpen()) {
+                stack.push(closeTokens[current.node.getIndex()]);
+                for (Graph.Node<T> previous: current.node.getPreviousSet()) {
+                    stack.push(createTokens(previous, current.depth + 1));
+                }
+            }
+        }
+    }
+
+    private Token<T> createTokens(Graph.Node<T> node, int depth) {
+        Token<T> open = new Token<>(random.nextInt(), node, depth);
+        openTokens[node.getIndex()] = open;
+        closeTokens[node.getIndex()] = new Token<>(random.nextInt(), node, NO_DEPTH);
+        return open;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > openTokens.length) {
+            int newCapacity = Math.max(capacity, openTokens.length * 2);
+            openTokens = Arrays.copyOf(openTokens, newCapacity);
+            closeTokens = Arrays.copyOf(closeTokens, newCapacity);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Token<T>[] newTokenArray(int capacity) {
+        return (Token<T>[]) new Token<?>[capacity];
+    }
+
+    private void checkAttached() {
+        if (!attached) {
+            throw new IllegalStateException("Объект отключен от графа.");
+        }
+    }
+
+    private Graph.Node<T> findDeepestNode() {
+        Token<T> current = root;
+        while (true) {
+            push(current);
+            if (current.left != null && current.left.maxDepth == current.maxDepth) {
+                current = current.left;
+            } else if (current.depth == current.maxDepth) {
+                return current.node;
+            } else {
+                current = current.right;
+            }
+        }
+    }
+
+    // Операции над отрезками последовательности
+
+    private Token<T> extractSubtree(Graph.Node<T> node) {
+        return extract(position(openTokens[node.getIndex()]), position(closeTokens[node.getIndex()]));
+    }
+
+    // Вырезает из последовательности токены с позициями from..to включительно и возвращает их
+    private Token<T> extract(int from, int to) {
+        split(root, to + 1);
+        Token<T> right = splitRight;
+        split(splitLeft, from);
+        Token<T> middle = splitRight;
+        root = merge(splitLeft, right);
+        return middle;
+    }
+
+    // Позиция токена в последовательности
+    private int position(Token<T> token) {
+        int position = size(token.left);
+        for (Token<T> current = token; current.parent != null; current = current.parent) {
+            if (current == current.parent.right) {
+                position += size(current.parent.left) + 1;
+            }
+        }
+        return position;
+    }
+
+    // Глубина вершины по ее токену входа с учетом отложенных добавок предков
+    private int depth(Token<T> open) {
+        int depth = open.depth;
+        for (Token<T> current = open.parent; current != null; current = current.parent) {
+            depth += current.pendingDepth;
+        }
+        return depth;
+    }
+
+    // Операции декартова дерева
+
+    // Разделяет дерево на первые count токенов (splitLeft) и остальные (splitRight)
+    private void split(Token<T> token, int count) {
+        splitRecursive(token, count);
+        if (splitLeft != null) splitLeft.parent = null;
+        if (splitRight != null) splitRight.parent = null;
+    }
+
+    private void splitRecursive(Token<T> token, int count) {
+        if (token == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        push(token);
+        if (size(token.left) >= count) {
+            splitRecursive(token.left, count);
+            token.left = splitRight;
+            update(token);
+            splitRight = token;
+        } else {
+            splitRecursive(token.right, count - size(token.left) - 1);
+            token.right = splitLeft;
+            update(token);
+            splitLeft = token;
+        }
+    }
+
+    private Token<T> merge(Token<T> left, Token<T> right) {
+        Token<T> result = mergeRecursive(left, right);
+        if (result != null) result.parent = null;
+        return result;
+    }
+
+    private Token<T> mergeRecursive(Token<T> left, Token<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            push(left);
+            left.right = mergeRecursive(left.right, right);
+            update(left);
+            return left;
+        }
+        push(right);
+        right.left = mergeRecursive(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private int size(Token<T> token) {
+        return token == null ? 0 : token.size;
+    }
+
+    private int maxDepth(Token<T> token) {
+        return token == null ? NO_DEPTH : token.maxDepth;
+    }
+
+    private void applyDepth(Token<T> token, int delta) {
+        if (token == null) return;
+        if (token.isOpen()) token.depth += delta;
+        if (token.maxDepth != NO_DEPTH) token.maxDepth += delta;
+        token.pendingDepth += delta;
+    }
+
+    private void push(Token<T> token) {
+        if (token.pendingDepth != 0) {
+            applyDepth(token.left, token.pendingDepth);
+            applyDepth(token.right, token.pendingDepth);
+            token.pendingDepth = 0;
+        }
+    }
+
+    private void update(Token<T> token) {
+        token.size = 1 + size(token.left) + size(token.right);
+        token.maxDepth = Math.max(token.depth, Math.max(maxDepth(token.left), maxDepth(token.right)));
+        if (token.left != null) token.left.parent = token;
+        if (token.right != null) token.right.parent = token;
+    }
+
+    /**
+     * Токен эйлерова обхода и одновременно узел декартова дерева.
+     * Токен входа хранит глубину вершины, токен выхода - значение {@link #NO_DEPTH}.
+     */
+    private static final class Token<T> {
+
+        private final Graph.Node<T> node;
+        private final int priority;
+        private Token<T> left;
+        private Token<T> right;
+        private Token<T> parent;
+        private int size = 1;
+        private int depth;
+        private int maxDepth;
+        // Добавка к глубине, еще не переданная потомкам узла
+        private int pendingDepth;
+
+        private Token(int priority, Graph.Node<T> node, int depth) {
+            this.priority = priority;
+            this.node = node;
+            this.depth = depth;
+            this.maxDepth = depth;
+        }
+
+        private boolean isOpen() {
+            return depth != NO_DEPTH;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package org.natalya_me.algorithm;
 
+import org.natalya_me.util.LongIntHashMap;
+
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -13,12 +20,53 @@ import java.util.Set;
 /**
  * Класс ориентированного ациклического графа специального вида, в котором исходящая степень любой вершины не превосходит 1.
  * Вершины графа содержат идентификатор и некоторые данные.
+ * <p>
+ * Граф может работать в режиме числовых идентификаторов: идентификаторы, являющиеся записью неотрицательного целого числа,
+ * преобразуются в long и разрешаются через примитивную хеш-таблицу без создания строк и объектов-оберток;
+ * строковое представление идентификатора восстанавливается только при обращении к нему.
+ * При появлении первого нечислового идентификатора граф автоматически переходит к строковым идентификаторам.
+ * <p>
+ * Граф поддерживает удаление вершин и дуг, а также перенаправление дуг. Чтобы самый длинный маршрут не вычислялся
+ * заново после каждого изменения, к графу можно подключить {@link DynamicLongestRoute}.
  * @param <T> тип данных, содержащихся в вершине графа.
  */
 public final  class Graph<T> {
 
+    // Максимальное число цифр числового идентификатора, гарантирующее отсутствие переполнения long
+    private static final int MAX_NUMERIC_ID_DIGITS = 18;
+    // Наибольший числовой идентификатор из MAX_NUMERIC_ID_DIGITS цифр
+    private static final long MAX_NUMERIC_ID = 999_999_999_999_999_999L;
+
     private final Map<String, Node<T>> nodeCache = new HashMap<>();
     private final Set<Node<T>> leafNodes = new HashSet<>();
+    // вершины графа по их индексам; на месте удаленных вершин хранится null
+    private final List<Node<T>> nodes = new ArrayList<>();
+    private int nodeCount = 0;
+    // стек индексов удаленных вершин, которые будут присвоены новым вершинам
+    private int[] freeIndexes = new int[0];
+    private int freeIndexCount = 0;
+    // индексы вершин по числовым идентификаторам; null, если граф работает со строковыми идентификаторами
+    private LongIntHashMap numericIdIndex;
+    // поддерживает самый длинный маршрут при изменениях графа; null, если не подключен
+    private DynamicLongestRoute<T> routeTracker;
+
+    /**
+     * Создает граф со строковыми идентификаторами вершин.
+     */
+    public Graph() {
+        this(false);
+    }
+
+    /**
+     * Создает граф.
+     *
+     * @param numericIds   true, если граф должен работать в режиме числовых идентификаторов
+     */
+    public Graph(boolean numericIds) {
+        if (numericIds) {
+            numericIdIndex = new LongIntHashMap();
+        }
+    }
 
     /**
      * Добавляет вершину в граф с идентификатором id и данными data.
@@ -31,6 +79,19 @@ public final  class Graph<T> {
         addOrFindNode(id).setData(data);
     }
 
+    /**
+     * Добавляет вершину в граф с числовым идентификатором id и данными data.
+     * Если вершина с таким идентификатором уже содержится в графе, то для нее обновляется поле данных.
+     * В режиме числовых идентификаторов вершина находится по числу без создания строки; идентификатор id
+     * соответствует строковому идентификатору {@code Long.toString(id)}.
+     *
+     * @param id     идентификатор вершины
+     * @param data   данные
+     */
+    public void addOrUpdateNode(long id, T data) {
+        addOrFindNode(id).setData(data);
+    }
+
     /**
      * Добавляет вершину в граф с идентификатором id. Если вершина с таким идентификатором существует, то новая вершина не создается.
      *
@@ -63,11 +124,101 @@ public final  class Graph<T> {
             return false;
         }
         Node<T> nodeTo = addOrFindNode(idTo);
-        if (nodeFrom.setNext(nodeTo)) {
-            leafNodes.remove(nodeFrom);
-            return true;
+        return linkNodes(nodeFrom, nodeTo, false);
+    }
+
+    /**
+     * Устанавливает дугу между вершинами с указанными числовыми идентификаторами аналогично {@link #addArc(String, String)}.
+     * В режиме числовых идентификаторов вершины находятся по числу без создания строк.
+     *
+     * @param idFrom   идентификатор вершины, из которой исходит дуга
+     * @param idTo     идентификатор вершины, в которую входит дуга
+     * @return true, если удалось установить дугу; false, если дуга уже существует
+     */
+    public boolean addArc(long idFrom, long idTo) {
+        if (idFrom == idTo) {
+            throw new IllegalArgumentException(String.format("Невозможно установить дугу %d -> %d: циклическая дуга.", idFrom, idTo));
         }
-        return false;
+        Node<T> nodeFrom = addOrFindNode(idFrom);
+        if (nodeFrom.getNext() != null) {
+            return false;
+        }
+        Node<T> nodeTo = addOrFindNode(idTo);
+        return linkNodes(nodeFrom, nodeTo, false);
+    }
+
+    /**
+     * Перенаправляет исходящую дугу вершины idFrom в вершину idTo. Если у вершины idFrom нет исходящей дуги, она устанавливается.
+     * Если одна или обе вершины не содержатся в графе, они создаются.
+     * При попытке установить дугу, формирующую цикл в графе, а также если один из переданных идентификаторов равен null,
+     * возникает {@link IllegalArgumentException}, при этом существующая дуга не изменяется.
+     *
+     * @param idFrom   идентификатор вершины, из которой исходит дуга
+     * @param idTo     идентификатор вершины, в которую должна входить дуга
+     * @return true, если дуга изменилась; false, если дуга idFrom -> idTo уже существует
+     */
+    public boolean redirectArc(String idFrom, String idTo) {
+        if (idFrom == null || idTo == null) {
+            throw new IllegalArgumentException(String.format("Невозможно перенаправить дугу %s -> %s: один из идентификаторов равен null.", idFrom, idTo));
+        }
+        if (idFrom.equals(idTo)) {
+            throw new IllegalArgumentException(String.format("Невозможно перенаправить дугу %s -> %s: циклическая дуга.", idFrom, idTo));
+        }
+        Node<T> nodeFrom = addOrFindNode(idFrom);
+        Node<T> nodeTo = addOrFindNode(idTo);
+        if (nodeFrom.getNext() == nodeTo) {
+            return false;
+        }
+        // Проверка до удаления старой дуги, чтобы при ошибке граф остался неизменным;
+        // старая дуга не влияет на достижимость вершины idFrom из вершины idTo
+        checkNoCycle(nodeFrom, nodeTo);
+        unlinkNext(nodeFrom);
+        return linkNodes(nodeFrom, nodeTo, true);
+    }
+
+    /**
+     * Удаляет дугу между вершинами с указанными идентификаторами. Сами вершины остаются в графе.
+     *
+     * @param idFrom   идентификатор вершины, из которой исходит дуга
+     * @param idTo     идентификатор вершины, в которую входит дуга
+     * @return true, если дуга была удалена; false, если такой дуги нет
+     */
+    public boolean removeArc(String idFrom, String idTo) {
+        if (!arcExists(idFrom, idTo)) {
+            return false;
+        }
+        unlinkNext(findNode(idFrom));
+        return true;
+    }
+
+    /**
+     * Удаляет вершину с переданным идентификатором вместе со всеми входящими в нее и исходящей из нее дугами.
+     *
+     * @param id   идентификатор вершины
+     * @return true, если вершина была удалена; false, если такой вершины нет
+     */
+    public boolean removeNode(String id) {
+        Node<T> node = findNode(id);
+        if (node == null) {
+            return false;
+        }
+        for (Node<T> previous: new ArrayList<>(node.getPreviousSet())) {
+            unlinkNext(previous);
+        }
+        unlinkNext(node);
+        leafNodes.remove(node);
+        if (routeTracker != null) {
+            routeTracker.nodeRemoved(node);
+        }
+        if (numericIdIndex != null) {
+            numericIdIndex.remove(node.numericId);
+        } else {
+            nodeCache.remove(node.getId());
+        }
+        nodes.set(node.getIndex(), null);
+        nodeCount--;
+        releaseIndex(node.getIndex());
+        return true;
     }
 
     /**
@@ -76,14 +227,14 @@ public final  class Graph<T> {
      * @return true, если в графе нет ни одной вершины.
      */
     public boolean isEmpty() {
-        return nodeCache.isEmpty();
+        return nodeCount == 0;
     }
 
     /**
      * Возвращает число вершин в графе.
      */
     public int size() {
-        return nodeCache.size();
+        return nodeCount;
     }
 
     /**
@@ -91,7 +242,7 @@ public final  class Graph<T> {
      * Если такой вершины нет, возвращается null.
      */
     public T getData(String id) {
-        return Optional.ofNullable(nodeCache.get(id)).map(Node::getData).orElse(null);
+        return Optional.ofNullable(findNode(id)).map(Node::getData).orElse(null);
     }
 
     /**
@@ -103,9 +254,9 @@ public final  class Graph<T> {
      */
     public boolean arcExists(String idFrom, String idTo) {
         if (idFrom == null || idTo == null) return false;
-        Node<T> nodeFrom = nodeCache.get(idFrom);
+        Node<T> nodeFrom = findNode(idFrom);
         if (nodeFrom == null) return false;
-        Node<T> nodeTo = nodeCache.get(idTo);
+        Node<T> nodeTo = findNode(idTo);
         if (nodeTo == null) return false;
         return nodeFrom.getNext() == nodeTo && nodeTo.getPreviousSet().contains(nodeFrom);
     }
@@ -114,46 +265,272 @@ public final  class Graph<T> {
      * Проверяет, содержит ли граф вершину с переданным идентификатором.
      */
     public boolean contains(String id) {
-        return nodeCache.containsKey(id);
+        return findNode(id) != null;
+    }
+
+    /**
+     * Проверяет, содержит ли граф вершину с переданным числовым идентификатором.
+     */
+    public boolean contains(long id) {
+        return isNumericId(id) ? findNumericNode(id) != null : contains(Long.toString(id));
     }
 
     // Служит для тестирования корректности состояния списка висячих вершин.
     boolean isLeaf(String id) {
-        return id != null && leafNodes.contains(nodeCache.get(id));
+        return id != null && leafNodes.contains(findNode(id));
     }
 
     Collection<Node<T>> getLeafNodes() {
         return new ArrayList<>(leafNodes);
     }
 
+    // Неизменяемое представление вершин графа без копирования: при обходе пропускаются места удаленных вершин
+    Collection<Node<T>> getNodes() {
+        return new AbstractCollection<Node<T>>() {
+            @Override
+            public Iterator<Node<T>> iterator() {
+                return new Iterator<Node<T>>() {
+                    private int index = skipRemoved(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < nodes.size();
+                    }
+
+                    @Override
+                    public Node<T> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Node<T> node = nodes.get(index);
+                        index = skipRemoved(index + 1);
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return nodeCount;
+            }
+        };
+    }
+
+    private int skipRemoved(int index) {
+        while (index < nodes.size() && nodes.get(index) == null) {
+            index++;
+        }
+        return index;
+    }
+
+    // Служит для тестирования автоматического перехода к строковым идентификаторам.
+    boolean usesNumericIds() {
+        return numericIdIndex != null;
+    }
+
+    /**
+     * Возвращает верхнюю границу индексов вершин графа: индекс любой вершины меньше возвращаемого значения.
+     * Позволяет алгоритмам хранить вспомогательные данные о вершинах в массивах и битовых множествах вместо словарей.
+     * Индексы удаленных вершин присваиваются новым вершинам, поэтому граница определяется наибольшим числом вершин,
+     * одновременно находившихся в графе, а не числом когда-либо созданных вершин.
+     */
+    int getNodeIndexBound() {
+        return nodes.size();
+    }
+
+    private Node<T> findNode(String id) {
+        if (id == null) {
+            return null;
+        }
+        if (numericIdIndex != null) {
+            long numericId = parseNumericId(id);
+            // вершины с нечисловым идентификатором в графе нет, пока он работает с числовыми идентификаторами
+            return numericId < 0 ? null : findNumericNode(numericId);
+        }
+        return nodeCache.get(id);
+    }
+
+    private Node<T> findNumericNode(long numericId) {
+        int index = numericIdIndex.get(numericId);
+        return index == LongIntHashMap.NO_VALUE ? null : nodes.get(index);
+    }
+
     private Node<T> addOrFindNode(String id) {
         if (id == null) {
             throw new IllegalArgumentException("Невозможно добавить вершину с идентификатором null.");
         }
+        if (numericIdIndex != null) {
+            long numericId = parseNumericId(id);
+            if (numericId >= 0) {
+                return addOrFindNumericNode(numericId);
+            }
+            switchToStringIds();
+        }
         return nodeCache.computeIfAbsent(id, key -> {
-            Node<T> node = new Node<>(key);
-            leafNodes.add(node);
+            Node<T> node = new Node<>(nextIndex(), key);
+            registerNode(node);
             return node;
         });
     }
 
+    // Идентификаторы, которые не помещаются в таблицу числовых идентификаторов, обрабатываются как строковые
+    private Node<T> addOrFindNode(long id) {
+        return isNumericId(id) ? addOrFindNumericNode(id) : addOrFindNode(Long.toString(id));
+    }
+
+    private Node<T> addOrFindNumericNode(long numericId) {
+        int index = numericIdIndex.get(numericId);
+        if (index != LongIntHashMap.NO_VALUE) {
+            return nodes.get(index);
+        }
+        Node<T> node = new Node<>(nextIndex(), numericId);
+        numericIdIndex.put(numericId, node.getIndex());
+        registerNode(node);
+        return node;
+    }
+
+    // true, если граф работает в режиме числовых идентификаторов и id может быть получен методом parseNumericId
+    private boolean isNumericId(long id) {
+        return numericIdIndex != null && id >= 0 && id <= MAX_NUMERIC_ID;
+    }
+
+    private int nextIndex() {
+        return freeIndexCount > 0 ? freeIndexes[--freeIndexCount] : nodes.size();
+    }
+
+    private void releaseIndex(int index) {
+        if (freeIndexCount == freeIndexes.length) {
+            freeIndexes = Arrays.copyOf(freeIndexes, Math.max(16, freeIndexes.length * 2));
+        }
+        freeIndexes[freeIndexCount++] = index;
+    }
+
+    private void registerNode(Node<T> node) {
+        if (node.getIndex() == nodes.size()) {
+            nodes.add(node);
+        } else {
+            nodes.set(node.getIndex(), node);
+        }
+        nodeCount++;
+        leafNodes.add(node);
+        if (routeTracker != null) {
+            routeTracker.nodeAdded(node);
+        }
+    }
+
+    void attachRouteTracker(DynamicLongestRoute<T> tracker) {
+        if (routeTracker != null) {
+            throw new IllegalStateException("К графу уже подключен объект, поддерживающий самый длинный маршрут.");
+        }
+        routeTracker = tracker;
+    }
+
+    void detachRouteTracker(DynamicLongestRoute<T> tracker) {
+        if (routeTracker == tracker) {
+            routeTracker = null;
+        }
+    }
+
+    // cycleChecked - true, если проверка на цикл уже выполнена вызывающим кодом
+    private boolean linkNodes(Node<T> nodeFrom, Node<T> nodeTo, boolean cycleChecked) {
+        // При подключенном routeTracker проверка на цикл выполняется за логарифмическое время вместо обхода маршрута
+        if (!cycleChecked && routeTracker != null) {
+            checkNoCycle(nodeFrom, nodeTo);
+        }
+        if (nodeFrom.setNext(nodeTo, !cycleChecked && routeTracker == null)) {
+            leafNodes.remove(nodeFrom);
+            if (routeTracker != null) {
+                routeTracker.arcAdded(nodeFrom, nodeTo);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void unlinkNext(Node<T> node) {
+        if (node.getNext() == null) {
+            return;
+        }
+        if (routeTracker != null) {
+            routeTracker.arcRemoved(node);
+        }
+        node.removeNext();
+        leafNodes.add(node);
+    }
+
+    private void checkNoCycle(Node<T> nodeFrom, Node<T> nodeTo) {
+        boolean cycle = routeTracker != null ? routeTracker.isReachable(nodeTo, nodeFrom) : nodeFrom.makesCycle(nodeTo);
+        if (cycle) {
+            throw new IllegalArgumentException(String.format("Добавление дуги %s -> %s приводит к появлению цикла в графе.", nodeFrom.getId(), nodeTo.getId()));
+        }
+    }
+
+    // Переход из режима числовых идентификаторов к строковым: строковые идентификаторы восстанавливаются для всех вершин
+    private void switchToStringIds() {
+        for (Node<T> node: nodes) {
+            if (node != null) {
+                node.id = node.getId();
+                nodeCache.put(node.id, node);
+            }
+        }
+        numericIdIndex = null;
+    }
+
+    /**
+     * Преобразует идентификатор в число, если он является канонической десятичной записью неотрицательного целого числа
+     * (без знака и ведущих нулей), так что по числу можно восстановить исходную строку.
+     *
+     * @param id   идентификатор вершины
+     * @return     числовое значение идентификатора либо -1, если идентификатор не является числовым
+     */
+    public static long parseNumericId(String id) {
+        int length = id.length();
+        if (length == 0 || length > MAX_NUMERIC_ID_DIGITS || (id.charAt(0) == '0' && length > 1)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
     /**
      * Класс вершины графа. Каждая вершина содержит ссылку на следующую вершину и множество ссылок на предыдущие вершины.
+     * Помимо идентификатора вершина имеет целочисленный индекс, уникальный в пределах графа.
+     * Вершина с числовым идентификатором хранит его в виде long, а строковое представление создается при каждом обращении
+     * и сохраняется в вершине только при переходе графа к строковым идентификаторам.
      * @param <T> тип данных, которые содержатся в вершине
      */
     static class Node<T> {
 
-        private final String id;
+        private final int index;
+        private final long numericId;
+        private String id;
         private T data;
         private Node<T> next;
         private Set<Node<T>> previousSet = Collections.emptySet();
 
-        public Node(String id) {
+        public Node(int index, String id) {
+            this.index = index;
+            this.numericId = -1;
             this.id = Objects.requireNonNull(id, "Идентификатор вершины не может быть null");
         }
 
-        public Node(String id, T data) {
-            this(id);
+        public Node(int index, long numericId) {
+            if (numericId < 0) {
+                throw new IllegalArgumentException(String.format("Недопустимый числовой идентификатор вершины: %d.", numericId));
+            }
+            this.index = index;
+            this.numericId = numericId;
+        }
+
+        public Node(int index, String id, T data) {
+            this(index, id);
             this.data = data;
         }
 
@@ -161,8 +538,13 @@ public final  class Graph<T> {
             this.data = data;
         }
 
+        public int getIndex() {
+            return index;
+        }
+
         public String getId() {
-            return id;
+            // строка для числового идентификатора не сохраняется, чтобы обход вершин не удерживал ее в памяти
+            return id != null ? id : Long.toString(numericId);
         }
 
         public T getData() {
@@ -182,16 +564,18 @@ public final  class Graph<T> {
         /**
          * Установление дуги this -> other, а именно сохранение ссылки other как {@link #next} для текущей вершины
          * и добавление ссылки на текущую вершину в множестве {@link #previousSet} вершины other.
-         * В процессе добавления выполняется проверка на возникновение цикла; повторное добавление или замена дуги невозможны.
+         * Повторное добавление или замена дуги невозможны.
          *
-         * @param other   следующая вершина
-         * @return         true, если дуга установлена успешно, иначе false
+         * @param other        следующая вершина
+         * @param checkCycle   true, если в процессе добавления нужно выполнить проверку на возникновение цикла
+         *                     (false допустимо, только если проверка уже выполнена вызывающим кодом)
+         * @return             true, если дуга установлена успешно, иначе false
          */
-        private boolean setNext(Node<T> other) {
+        private boolean setNext(Node<T> other, boolean checkCycle) {
             if (other == null || next != null) {
                 return false;
             }
-            if (makesCycle(other))  {
+            if (checkCycle && makesCycle(other))  {
                 throw new IllegalArgumentException(String.format("Добавление дуги %s -> %s приводит к появлению цикла в графе.", this.getId(), other.getId()));
             }
             if (other.addPrevious(this)) {
@@ -203,7 +587,7 @@ public final  class Graph<T> {
 
         /**
          * Добавление ссылки на предыдущую вершину при добавлении дуги other -> this.
-         * Вызывается только внутри метода {@link #setNext(Node)}, вызов где-либо еще приведет к нарушению инварианта класса и состояния графа.
+         * Вызывается только внутри метода {@link #setNext(Node, boolean)}, вызов где-либо еще приведет к нарушению инварианта класса и состояния графа.
          *
          * @param other   предыдущая вершина
          * @return        true, если удалось добавить ссылку, иначе false.
@@ -219,6 +603,21 @@ public final  class Graph<T> {
             return true;
         }
 
+        /**
+         * Удаление дуги this -> next: ссылка на текущую вершину удаляется из множества {@link #previousSet} следующей вершины,
+         * после чего текущая вершина становится висячей.
+         */
+        private void removeNext() {
+            if (next == null) {
+                return;
+            }
+            next.previousSet.remove(this);
+            if (next.previousSet.isEmpty()) {
+                next.previousSet = Collections.emptySet();
+            }
+            next = null;
+        }
+
         /**
          * Проверяет, создает ли цикл в графе добавление дуги this -> next.
          *
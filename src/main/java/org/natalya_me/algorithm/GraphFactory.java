@@ -0,0 +1,53 @@
+package org.natalya_me.algorithm;
+
+import java.util.List;
+
+/**
+ * Утилитный класс для построения графа маршрутов по записям входного файла.
+ */
+public class GraphFactory {
+
+    private GraphFactory() {
+        throw new UnsupportedOperationException(String.format("Инстанцирование класса %s запрещено.", GraphFactory.class.getName()));
+    }
+
+    /**
+     * Создает граф по записям формата:
+     * <идентификатор здания>;<адрес здания>;<идентификатор следующего здания маршрута>
+     * Идентификаторы зданий, как правило, числовые, поэтому граф создается в режиме числовых идентификаторов
+     * (при появлении нечислового идентификатора граф сам перейдет к строковым). Числовые идентификаторы разбираются
+     * один раз и передаются в граф в виде long, чтобы граф не разбирал строку заново при каждом поиске вершины.
+     *
+     * @param records   записи входного файла, разделенные на значения
+     * @return          граф маршрутов, в вершинах которого хранятся адреса зданий
+     */
+    public static Graph<String> createRouteGraph(List<String[]> records) {
+        Graph<String> graph = new Graph<>(true);
+        for (String[] dataLine: records) {
+            try {
+                long id = parseId(dataLine[0]);
+                if (id >= 0) {
+                    graph.addOrUpdateNode(id, dataLine[1]);
+                } else {
+                    graph.addOrUpdateNode(dataLine[0], dataLine[1]);
+                }
+                if (dataLine.length > 2) {
+                    long nextId = parseId(dataLine[2]);
+                    if (id >= 0 && nextId >= 0) {
+                        graph.addArc(id, nextId);
+                    } else {
+                        graph.addArc(dataLine[0], dataLine[2]);
+                    }
+                }
+            } catch (IndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("Неверный формат данных входного файла");
+            }
+        }
+        return graph;
+    }
+
+    // Числовое значение идентификатора либо -1, если идентификатор не является числовым
+    private static long parseId(String id) {
+        return id == null ? -1 : Graph.parseNumericId(id);
+    }
+}
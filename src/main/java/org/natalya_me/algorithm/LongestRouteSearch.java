@@ -4,11 +4,11 @@ import org.natalya_me.util.ImmutablePair;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.BiPredicate;
 
 /**
  * Класс, содержащий алгоритм поиска самого длинного маршрута в графе.
@@ -23,8 +23,8 @@ public class LongestRouteSearch {
     /**
      * Находит самый длинный маршрут в графе.
      * Граф обходится в обратном порядке начиная с висячих вершин. Во избежание применения рекурсии и повторного посещения
-     * вершин используются вспомогательные структуры данных - стек для обхода графа в ширину и словарь вычисленных длин
-     * маршрутов для посещенных вершин.
+     * вершин используются вспомогательные структуры данных - стек для обхода графа в ширину и массив вычисленных длин
+     * маршрутов для посещенных вершин по их индексам.
      *
      * @param graph   экземпляр графа
      * @return        список пар (id, data) для вершин найденного маршрута в правильном порядке, либо пустой список, если граф пуст
@@ -41,14 +41,14 @@ public class LongestRouteSearch {
         // стек вершин для посещения
         Deque<Graph.Node<T>> stack = new ArrayDeque<>();
         // длины маршрутов, исходящих из посещенных вершин
-        Map<String, Integer> lengths = new HashMap<>();
+        int[] lengths = new int[graph.getNodeIndexBound()];
 
         for (Graph.Node<T> leaf: graph.getLeafNodes()) {
             stack.push(leaf);
             while (!stack.isEmpty()) {
                 Graph.Node<T> current = stack.pop();
-                int length = current.getNext() == null ? 1 : lengths.get(current.getNext().getId()) + 1;
-                lengths.put(current.getId(), length);
+                int length = current.getNext() == null ? 1 : lengths[current.getNext().getIndex()] + 1;
+                lengths[current.getIndex()] = length;
                 // текущая вершина является головой некоторого подграфа
                 if (current.getPreviousSet().isEmpty() && length > maxLength) {
                     maxLength = length;
@@ -62,9 +62,73 @@ public class LongestRouteSearch {
         return fillResultList(longestRouteHead);
     }
 
-    private static <T> List<ImmutablePair<String, T>> fillResultList(Graph.Node<T> head) {
+    /**
+     * Находит самый длинный маршрут в графе, все вершины которого удовлетворяют фильтру.
+     * Маршрутом здесь считается последовательность подряд идущих по дугам вершин, поэтому вершина, не прошедшая фильтр,
+     * разрывает маршрут. Граф при этом не копируется: фильтр вычисляется один раз для каждой вершины и сохраняется
+     * в битовом множестве по индексам вершин, после чего выполняется один обход графа в обратном порядке начиная с висячих вершин.
+     * Длины маршрутов хранятся в массиве по индексам вершин, поэтому на одном построенном графе можно дешево выполнять
+     * множество запросов с разными фильтрами.
+     *
+     * @param graph       экземпляр графа
+     * @param predicate   фильтр вершин, принимающий идентификатор и данные вершины
+     * @return            список пар (id, data) для вершин найденного маршрута в правильном порядке,
+     *                    либо пустой список, если граф пуст или ни одна вершина не удовлетворяет фильтру
+     * @param <T>         тип данных, содержащихся в вершине
+     */
+    public static <T> List<ImmutablePair<String, T>> findLongestRoute(Graph<T> graph, BiPredicate<String, ? super T> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Фильтр вершин не может быть null.");
+        }
+        if (graph.isEmpty()) return Collections.emptyList();
+
+        // вершины, удовлетворяющие фильтру
+        BitSet matches = new BitSet(graph.getNodeIndexBound());
+        for (Graph.Node<T> node: graph.getNodes()) {
+            if (predicate.test(node.getId(), node.getData())) {
+                matches.set(node.getIndex());
+            }
+        }
+        if (matches.isEmpty()) return Collections.emptyList();
+
+        // длина текущего самого длинного найденного маршрута
+        int maxLength = 0;
+        // ссылка на исходную вершину самого длинного маршрута
+        Graph.Node<T> longestRouteHead = null;
+
+        // стек вершин для посещения
+        Deque<Graph.Node<T>> stack = new ArrayDeque<>();
+        // длины маршрутов из подходящих вершин, исходящих из посещенных вершин; для неподходящих вершин длина равна 0
+        int[] lengths = new int[graph.getNodeIndexBound()];
+
+        for (Graph.Node<T> leaf: graph.getLeafNodes()) {
+            stack.push(leaf);
+            while (!stack.isEmpty()) {
+                Graph.Node<T> current = stack.pop();
+                int length = 0;
+                if (matches.get(current.getIndex())) {
+                    length = current.getNext() == null ? 1 : lengths[current.getNext().getIndex()] + 1;
+                }
+                lengths[current.getIndex()] = length;
+                // первая вершина, на которой достигнута наибольшая длина, всегда является началом маршрута:
+                // у подходящей предыдущей вершины длина была бы больше
+                if (length > maxLength) {
+                    maxLength = length;
+                    longestRouteHead = current;
+                }
+                stack.addAll(current.getPreviousSet());
+            }
+        }
+        return fillResultList(longestRouteHead, maxLength);
+    }
+
+    static <T> List<ImmutablePair<String, T>> fillResultList(Graph.Node<T> head) {
+        return fillResultList(head, Integer.MAX_VALUE);
+    }
+
+    private static <T> List<ImmutablePair<String, T>> fillResultList(Graph.Node<T> head, int maxLength) {
         List<ImmutablePair<String, T>> result = new ArrayList<>();
-        while (head != null) {
+        while (head != null && result.size() < maxLength) {
             result.add(new ImmutablePair<>(head.getId(), head.getData()));
             head = head.getNext();
         }
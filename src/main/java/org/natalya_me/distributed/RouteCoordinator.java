@@ -0,0 +1,252 @@
+package org.natalya_me.distributed;
+
+import org.natalya_me.util.FileReader;
+import org.natalya_me.util.ImmutablePair;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Координатор распределенного поиска самого длинного маршрута.
+ * Разбивает записи входного файла на части по деревьям графа ({@link RoutePartitioner}), отправляет каждую часть
+ * своему рабочему процессу ({@link RouteWorker}) и выбирает самый длинный из найденных рабочими процессами маршрутов.
+ * Если несколько маршрутов имеют одинаковую длину, возвращается маршрут рабочего процесса, указанного в списке раньше.
+ * Если рабочий процесс недоступен или не отвечает в течение заданного времени, возникает {@link UncheckedIOException}
+ * с адресом этого рабочего процесса в сообщении. Ошибка сообщается сразу, как только она возникла, без ожидания
+ * остальных рабочих процессов, а их соединения закрываются.
+ * <p>
+ * Записи обходятся дважды: при первом проходе строится только разметка вершин по частям, при втором каждая запись
+ * сразу отправляется в соединение со своим рабочим процессом. Поэтому при чтении из файла координатор не хранит
+ * ни записи, ни части, а только номера частей по идентификаторам вершин.
+ */
+public class RouteCoordinator {
+
+    /**
+     * Время ожидания установления соединения с рабочим процессом по умолчанию, мс.
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10_000;
+    /**
+     * Время ожидания данных от рабочего процесса по умолчанию, мс. Включает время поиска маршрута рабочим процессом.
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 600_000;
+
+    private RouteCoordinator() {
+        throw new UnsupportedOperationException(String.format("Инстанцирование класса %s запрещено.", RouteCoordinator.class.getName()));
+    }
+
+    /**
+     * Находит самый длинный маршрут по записям входного файла, распределяя их между рабочими процессами.
+     * Файл читается построчно дважды и не загружается в память целиком.
+     *
+     * @param inputFilePath   путь к входному файлу с записями формата (id, address[, next])
+     * @param workers         адреса рабочих процессов
+     * @return                список пар (id, address) для вершин найденного маршрута в правильном порядке, либо пустой список,
+     *                        если записей нет
+     */
+    public static List<ImmutablePair<String, String>> findLongestRoute(String inputFilePath, List<InetSocketAddress> workers) {
+        return findLongestRoute(inputFilePath, workers, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Находит самый длинный маршрут по записям входного файла с заданными временами ожидания.
+     *
+     * @param inputFilePath         путь к входному файлу с записями формата (id, address[, next])
+     * @param workers               адреса рабочих процессов
+     * @param connectTimeoutMillis  время ожидания установления соединения с рабочим процессом, мс
+     * @param readTimeoutMillis     время ожидания данных от рабочего процесса, мс
+     * @return                      список пар (id, address) для вершин найденного маршрута в правильном порядке,
+     *                              либо пустой список, если записей нет
+     */
+    public static List<ImmutablePair<String, String>> findLongestRoute(String inputFilePath, List<InetSocketAddress> workers,
+                                                                       int connectTimeoutMillis, int readTimeoutMillis) {
+        if (inputFilePath == null) {
+            throw new IllegalArgumentException("Путь к файлу не может быть null.");
+        }
+        return findLongestRoute(action -> FileReader.forEachCsvRecord(inputFilePath, action), workers, connectTimeoutMillis, readTimeoutMillis);
+    }
+
+    /**
+     * Находит самый длинный маршрут по записям, уже находящимся в памяти, распределяя их между рабочими процессами.
+     * Части отправляются рабочим процессам параллельно; рабочим процессам, которым не досталось записей, соединение не открывается.
+     *
+     * @param records   записи формата (id, address[, next])
+     * @param workers   адреса рабочих процессов
+     * @return          список пар (id, address) для вершин найденного маршрута в правильном порядке, либо пустой список,
+     *                  если записей нет
+     */
+    public static List<ImmutablePair<String, String>> findLongestRoute(List<String[]> records, List<InetSocketAddress> workers) {
+        return findLongestRoute(records, workers, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Находит самый длинный маршрут по записям, уже находящимся в памяти, с заданными временами ожидания.
+     *
+     * @param records               записи формата (id, address[, next])
+     * @param workers               адреса рабочих процессов
+     * @param connectTimeoutMillis  время ожидания установления соединения с рабочим процессом, мс
+     * @param readTimeoutMillis     время ожидания данных от рабочего процесса, мс
+     * @return                      список пар (id, address) для вершин найденного маршрута в правильном порядке,
+     *                              либо пустой список, если записей нет
+     */
+    public static List<ImmutablePair<String, String>> findLongestRoute(List<String[]> records, List<InetSocketAddress> workers,
+                                                                       int connectTimeoutMillis, int readTimeoutMillis) {
+        if (records == null) {
+            throw new IllegalArgumentException("Список записей не может быть null.");
+        }
+        return findLongestRoute(records::forEach, workers, connectTimeoutMillis, readTimeoutMillis);
+    }
+
+    private static List<ImmutablePair<String, String>> findLongestRoute(RecordSource records, List<InetSocketAddress> workers,
+                                                                        int connectTimeoutMillis, int readTimeoutMillis) {
+        if (connectTimeoutMillis <= 0 || readTimeoutMillis <= 0) {
+            throw new IllegalArgumentException(String.format("Недопустимое время ожидания: %d мс, %d мс.", connectTimeoutMillis, readTimeoutMillis));
+        }
+        if (workers == null || workers.isEmpty()) {
+            throw new IllegalArgumentException("Не передан ни один адрес рабочего процесса.");
+        }
+        // Первый проход: разметка вершин по частям
+        RoutePartitioner partitioner = new RoutePartitioner();
+        records.forEach(partitioner::addRecord);
+        partitioner.assignShards(workers.size());
+
+        // Соединения по номерам рабочих процессов; с рабочими процессами, которым не досталось записей, соединение не открывается
+        Socket[] sockets = new Socket[workers.size()];
+        // Потоки-демоны не препятствуют завершению JVM, даже если рабочий процесс перестал отвечать
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size(), runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            DataOutputStream[] outputs = new DataOutputStream[workers.size()];
+            for (int i = 0; i < workers.size(); i++) {
+                if (partitioner.getShardSize(i) > 0) {
+                    sockets[i] = new Socket();
+                    outputs[i] = connect(sockets[i], workers.get(i), connectTimeoutMillis, readTimeoutMillis);
+                }
+            }
+            // Второй проход: каждая запись сразу отправляется своему рабочему процессу
+            records.forEach(record -> {
+                int shard = partitioner.getShard(record[0]);
+                try {
+                    ShardProtocol.writeRecord(outputs[shard], record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(workerException(workers.get(shard), e));
+                }
+            });
+
+            // Результаты принимаются в порядке готовности вместе с номером рабочего процесса
+            CompletionService<ImmutablePair<Integer, List<ImmutablePair<String, String>>>> results = new ExecutorCompletionService<>(executor);
+            int taskCount = 0;
+            for (int i = 0; i < workers.size(); i++) {
+                if (sockets[i] != null) {
+                    int workerNumber = i;
+                    InetSocketAddress worker = workers.get(i);
+                    Socket socket = sockets[i];
+                    try {
+                        ShardProtocol.writeEndOfRecords(outputs[i]);
+                    } catch (IOException e) {
+                        throw workerException(worker, e);
+                    }
+                    results.submit(() -> new ImmutablePair<>(workerNumber, readRoute(socket, worker)));
+                    taskCount++;
+                }
+            }
+
+            List<ImmutablePair<String, String>> longestRoute = Collections.emptyList();
+            int longestRouteWorker = workers.size();
+            for (int i = 0; i < taskCount; i++) {
+                ImmutablePair<Integer, List<ImmutablePair<String, String>>> result = takeResult(results);
+                List<ImmutablePair<String, String>> route = result.getValue();
+                if (route.size() > longestRoute.size()
+                        || (route.size() == longestRoute.size() && result.getKey() < longestRouteWorker)) {
+                    longestRoute = route;
+                    longestRouteWorker = result.getKey();
+                }
+            }
+            return longestRoute;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // shutdownNow не прерывает чтение из сокета, поэтому соединения, оставшиеся открытыми после ошибки, закрываются явно
+            executor.shutdownNow();
+            closeAll(sockets);
+        }
+    }
+
+    private static DataOutputStream connect(Socket socket, InetSocketAddress worker,
+                                            int connectTimeoutMillis, int readTimeoutMillis) throws IOException {
+        try {
+            socket.connect(worker, connectTimeoutMillis);
+            socket.setSoTimeout(readTimeoutMillis);
+            return new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        } catch (IOException e) {
+            throw workerException(worker, e);
+        }
+    }
+
+    private static List<ImmutablePair<String, String>> readRoute(Socket socket, InetSocketAddress worker) throws IOException {
+        try {
+            return ShardProtocol.readRoute(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+        } catch (IOException e) {
+            throw workerException(worker, e);
+        }
+    }
+
+    private static IOException workerException(InetSocketAddress worker, IOException e) {
+        if (e instanceof SocketTimeoutException) {
+            return new IOException(String.format("Превышено время ожидания рабочего процесса %s.", worker), e);
+        }
+        return new IOException(String.format("Ошибка обмена данными с рабочим процессом %s: %s", worker, e.getMessage()), e);
+    }
+
+    private static void closeAll(Socket[] sockets) {
+        for (Socket socket: sockets) {
+            if (socket == null) continue;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // соединение уже не используется, ошибка закрытия не влияет на результат
+            }
+        }
+    }
+
+    private static <V> V takeResult(CompletionService<V> results) {
+        try {
+            return results.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание результата рабочего процесса прервано.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Источник записей, который можно обойти несколько раз: входной файл или список в памяти
+    @FunctionalInterface
+    private interface RecordSource {
+        void forEach(Consumer<String[]> action);
+    }
+}
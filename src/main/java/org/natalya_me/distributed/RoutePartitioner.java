@@ -0,0 +1,223 @@
+package org.natalya_me.distributed;
+
+import org.natalya_me.algorithm.Graph;
+import org.natalya_me.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Класс для разбиения записей входного файла на независимые части.
+ * Любой маршрут целиком лежит в одном дереве графа, поэтому записи группируются по деревьям:
+ * каждой вершине сопоставляется висячая вершина, в которой заканчиваются маршруты через нее,
+ * а деревья распределяются по частям так, чтобы число записей в частях было примерно одинаковым.
+ * <p>
+ * Разбиение выполняется за два прохода по записям, сами записи при этом не хранятся. При первом проходе
+ * ({@link #addRecord(String[])}) запоминаются только идентификаторы вершин и дуги между ними: вершинам присваиваются
+ * номера (числовые идентификаторы разрешаются через примитивную хеш-таблицу, остальные - через словарь),
+ * а дуги и число записей хранятся в массивах по номерам вершин. После распределения ({@link #assignShards(int)})
+ * для каждой вершины остается только номер ее части, по которому при втором проходе ({@link #getShard(String)})
+ * запись направляется в свою часть.
+ */
+public final class RoutePartitioner {
+
+    private static final int NO_INDEX = -1;
+    // Метка вершины, для которой висячая вершина еще ищется; повторная встреча такой вершины означает цикл
+    private static final int IN_PROGRESS = -2;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final LongIntHashMap numericIdIndexes = new LongIntHashMap();
+    private final Map<String, Integer> stringIdIndexes = new HashMap<>();
+    private int idCount = 0;
+    // Номер следующей вершины по номеру вершины либо NO_INDEX; используется первая встретившаяся дуга, как и при построении графа
+    private int[] nextIndexes = new int[INITIAL_CAPACITY];
+    // Число записей по номеру вершины
+    private int[] recordCounts = new int[INITIAL_CAPACITY];
+    // Номер части по номеру вершины; null, пока части не распределены
+    private int[] shards;
+    private int[] shardSizes;
+
+    /**
+     * Учитывает запись формата (id, address[, next]) при первом проходе.
+     * Если в записи меньше двух значений, возникает {@link IllegalArgumentException}.
+     *
+     * @param record   запись входного файла
+     */
+    public void addRecord(String[] record) {
+        if (shards != null) {
+            throw new IllegalStateException("Части уже распределены.");
+        }
+        if (record == null || record.length < 2 || record[0] == null) {
+            throw new IllegalArgumentException("Неверный формат данных входного файла");
+        }
+        int index = addOrFindIndex(record[0]);
+        recordCounts[index]++;
+        if (record.length > 2 && nextIndexes[index] == NO_INDEX) {
+            // номер следующей вершины вычисляется до записи в массив: при добавлении вершины массив может быть заменен
+            int nextIndex = addOrFindIndex(record[2]);
+            nextIndexes[index] = nextIndex;
+        }
+    }
+
+    /**
+     * Распределяет деревья графа по частям: деревья перебираются по убыванию числа записей, каждое попадает
+     * в наименее загруженную часть. После распределения записи больше не добавляются.
+     * Если записи образуют цикл, возникает {@link IllegalArgumentException}.
+     *
+     * @param shardCount   число частей
+     */
+    public void assignShards(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException(String.format("Недопустимое число частей: %d.", shardCount));
+        }
+        if (shards != null) {
+            throw new IllegalStateException("Части уже распределены.");
+        }
+        int[] leafIndexes = labelLeaves();
+        nextIndexes = null;
+
+        // Размеры деревьев по номерам висячих вершин
+        int[] treeSizes = new int[idCount];
+        int treeCount = 0;
+        for (int i = 0; i < idCount; i++) {
+            treeSizes[leafIndexes[i]] += recordCounts[i];
+            if (leafIndexes[i] == i) {
+                treeCount++;
+            }
+        }
+        recordCounts = null;
+        // Деревья упорядочены по убыванию размера, при равенстве - по номеру висячей вершины;
+        // оба ключа упакованы в long, чтобы сортировать примитивный массив
+        long[] trees = new long[treeCount];
+        int treeNumber = 0;
+        for (int leaf = 0; leaf < idCount; leaf++) {
+            if (leafIndexes[leaf] == leaf) {
+                trees[treeNumber++] = ((long) (Integer.MAX_VALUE - treeSizes[leaf]) << 32) | leaf;
+            }
+        }
+        Arrays.sort(trees);
+
+        // Загрузка частей; номера частей упорядочены по загрузке, при равенстве - по номеру
+        int[] loads = new int[shardCount];
+        PriorityQueue<Integer> shardQueue = new PriorityQueue<>(shardCount,
+                Comparator.<Integer>comparingInt(shard -> loads[shard]).thenComparingInt(shard -> shard));
+        for (int i = 0; i < shardCount; i++) {
+            shardQueue.add(i);
+        }
+        // Размеры деревьев больше не нужны, массив хранит номера частей по номерам висячих вершин
+        int[] treeShards = treeSizes;
+        for (long tree: trees) {
+            int leaf = (int) tree;
+            int shard = shardQueue.poll();
+            loads[shard] += Integer.MAX_VALUE - (int) (tree >>> 32);
+            treeShards[leaf] = shard;
+            shardQueue.add(shard);
+        }
+        for (int i = 0; i < idCount; i++) {
+            leafIndexes[i] = treeShards[leafIndexes[i]];
+        }
+        shards = leafIndexes;
+        shardSizes = loads;
+    }
+
+    /**
+     * Возвращает номер части для записи с идентификатором id при втором проходе.
+     * Если такой идентификатор не встречался при первом проходе, возникает {@link IllegalArgumentException}.
+     */
+    public int getShard(String id) {
+        checkAssigned();
+        int index = id == null ? NO_INDEX : findIndex(id);
+        if (index == NO_INDEX) {
+            throw new IllegalArgumentException(String.format("Запись с идентификатором %s не встречалась при разметке.", id));
+        }
+        return shards[index];
+    }
+
+    /**
+     * Возвращает число записей в части с переданным номером; 0, если части не досталось ни одного дерева.
+     */
+    public int getShardSize(int shard) {
+        checkAssigned();
+        return shardSizes[shard];
+    }
+
+    private void checkAssigned() {
+        if (shards == null) {
+            throw new IllegalStateException("Части еще не распределены.");
+        }
+    }
+
+    /**
+     * Находит для каждой вершины номер висячей вершины, в которой заканчивается маршрут из нее.
+     * Найденный номер запоминается для всех вершин пройденного пути, поэтому каждая вершина проходится один раз;
+     * буфер пути общий для всех вершин.
+     *
+     * @return   массив номеров висячих вершин по номерам вершин
+     */
+    private int[] labelLeaves() {
+        int[] leafIndexes = new int[idCount];
+        Arrays.fill(leafIndexes, NO_INDEX);
+        int[] path = new int[INITIAL_CAPACITY];
+        for (int start = 0; start < idCount; start++) {
+            int pathLength = 0;
+            int current = start;
+            while (leafIndexes[current] == NO_INDEX) {
+                leafIndexes[current] = IN_PROGRESS;
+                if (pathLength == path.length) {
+                    path = Arrays.copyOf(path, pathLength * 2);
+                }
+                path[pathLength++] = current;
+                if (nextIndexes[current] == NO_INDEX) {
+                    break;
+                }
+                current = nextIndexes[current];
+            }
+            int leaf = leafIndexes[current];
+            if (leaf == IN_PROGRESS) {
+                // вершина пройденного пути: либо висячая вершина, на которой путь закончился, либо начало цикла
+                if (nextIndexes[current] != NO_INDEX) {
+                    throw new IllegalArgumentException("Записи входного файла образуют цикл.");
+                }
+                leaf = current;
+            }
+            for (int i = 0; i < pathLength; i++) {
+                leafIndexes[path[i]] = leaf;
+            }
+        }
+        return leafIndexes;
+    }
+
+    private int findIndex(String id) {
+        long numericId = Graph.parseNumericId(id);
+        if (numericId >= 0) {
+            return numericIdIndexes.get(numericId);
+        }
+        Integer index = stringIdIndexes.get(id);
+        return index == null ? NO_INDEX : index;
+    }
+
+    private int addOrFindIndex(String id) {
+        long numericId = Graph.parseNumericId(id);
+        if (numericId >= 0) {
+            int index = numericIdIndexes.get(numericId);
+            if (index == LongIntHashMap.NO_VALUE) {
+                index = nextIndex();
+                numericIdIndexes.put(numericId, index);
+            }
+            return index;
+        }
+        return stringIdIndexes.computeIfAbsent(id, key -> nextIndex());
+    }
+
+    private int nextIndex() {
+        if (idCount == nextIndexes.length) {
+            nextIndexes = Arrays.copyOf(nextIndexes, idCount * 2);
+            recordCounts = Arrays.copyOf(recordCounts, idCount * 2);
+        }
+        nextIndexes[idCount] = NO_INDEX;
+        return idCount++;
+    }
+}
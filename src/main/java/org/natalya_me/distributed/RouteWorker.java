@@ -0,0 +1,125 @@
+package org.natalya_me.distributed;
+
+import org.natalya_me.algorithm.GraphFactory;
+import org.natalya_me.algorithm.LongestRouteSearch;
+import org.natalya_me.util.ImmutablePair;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Рабочий процесс распределенного поиска самого длинного маршрута.
+ * Принимает соединения координатора на заданном порту; по каждому соединению получает часть записей входного файла,
+ * строит по ней граф, находит в нем самый длинный маршрут и отправляет его координатору.
+ * Соединения обрабатываются последовательно, до закрытия рабочего процесса методом {@link #close()}.
+ * Ошибка при обработке одного соединения (обрыв, некорректные данные) не прерывает работу рабочего процесса:
+ * на некорректные данные по возможности отправляется ответ с ошибкой, после чего соединение закрывается.
+ * Ошибки соединений выводятся в стандартный поток ошибок.
+ */
+public final class RouteWorker implements Closeable {
+
+    /**
+     * Время ожидания данных от координатора по умолчанию, мс.
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 60_000;
+
+    // Пауза перед повторным приемом соединения после ошибки, чтобы постоянная ошибка не загружала процессор
+    private static final long ACCEPT_RETRY_DELAY_MILLIS = 1_000;
+
+    private final ServerSocket serverSocket;
+    private final int readTimeoutMillis;
+
+    /**
+     * @param port   порт для приема соединений; 0 - любой свободный порт
+     */
+    public RouteWorker(int port) throws IOException {
+        this(port, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param port                порт для приема соединений; 0 - любой свободный порт
+     * @param readTimeoutMillis   время ожидания данных от координатора, мс; по его истечении соединение закрывается,
+     *                            чтобы зависший координатор не блокировал обработку следующих соединений
+     */
+    public RouteWorker(int port, int readTimeoutMillis) throws IOException {
+        if (readTimeoutMillis <= 0) {
+            throw new IllegalArgumentException(String.format("Недопустимое время ожидания: %d мс.", readTimeoutMillis));
+        }
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * Возвращает порт, на котором рабочий процесс принимает соединения.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Обрабатывает соединения координатора до закрытия рабочего процесса.
+     * Обрыв отдельного соединения не прерывает работу. Если не удается принять соединение (например, исчерпан лимит
+     * открытых файлов), прием повторяется после паузы.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                System.err.printf("Ошибка приема соединения: %s%n", e);
+                if (!pause()) {
+                    return;
+                }
+                continue;
+            }
+            try (Socket connection = socket) {
+                connection.setSoTimeout(readTimeoutMillis);
+                handleShard(connection);
+            } catch (IOException | RuntimeException e) {
+                System.err.printf("Ошибка обработки соединения %s: %s%n", socket.getRemoteSocketAddress(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    // Возвращает false, если ожидание прервано
+    private static boolean pause() {
+        try {
+            Thread.sleep(ACCEPT_RETRY_DELAY_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void handleShard(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        List<ImmutablePair<String, String>> route;
+        try {
+            List<String[]> records = ShardProtocol.readRecords(in);
+            route = LongestRouteSearch.findLongestRoute(GraphFactory.createRouteGraph(records));
+        } catch (IOException | RuntimeException ex) {
+            System.err.printf("Ошибка обработки части от %s: %s%n", socket.getRemoteSocketAddress(), ex);
+            ShardProtocol.writeError(out, ex.getMessage());
+            return;
+        }
+        ShardProtocol.writeRoute(out, route);
+    }
+}
@@ -0,0 +1,146 @@
+package org.natalya_me.distributed;
+
+import org.natalya_me.util.ImmutablePair;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Формат обмена данными между координатором и рабочим процессом.
+ * Координатор передает записи по одной: каждой записи предшествует признак записи, за ним следуют ее идентификатор,
+ * адрес и идентификатор следующей записи (может отсутствовать); после последней записи передается признак конца.
+ * Так координатор может передавать записи по мере чтения входного файла, не зная их числа заранее.
+ * Остальные значения записи при построении графа не используются и не передаются.
+ * Рабочий процесс отвечает статусом; при успехе передается число вершин маршрута и пары (id, data),
+ * при ошибке - сообщение об ошибке. Строки передаются в кодировке UTF-8 с предшествующей длиной в байтах,
+ * строки, которые могут быть null, предваряются признаком наличия значения.
+ * Размеры, прочитанные из соединения, проверяются до использования: при выходе за допустимые пределы
+ * возникает {@link IOException}, а списки не создаются заранее по непроверенному размеру.
+ */
+final class ShardProtocol {
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    static final byte END_OF_RECORDS = 0;
+    static final byte RECORD = 1;
+
+    // Максимальное число записей в одной части и вершин в маршруте
+    static final int MAX_RECORD_COUNT = 100_000_000;
+    // Максимальная длина строки в байтах
+    static final int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+
+    private ShardProtocol() {
+        throw new UnsupportedOperationException(String.format("Инстанцирование класса %s запрещено.", ShardProtocol.class.getName()));
+    }
+
+    /**
+     * Передает запись формата (id, address[, next, ...]). Если в записи меньше двух значений,
+     * возникает {@link IllegalArgumentException}.
+     */
+    static void writeRecord(DataOutputStream out, String[] record) throws IOException {
+        if (record.length < 2) {
+            throw new IllegalArgumentException("Неверный формат данных входного файла");
+        }
+        out.writeByte(RECORD);
+        writeString(out, record[0]);
+        writeString(out, record[1]);
+        writeNullableString(out, record.length > 2 ? record[2] : null);
+    }
+
+    static void writeEndOfRecords(DataOutputStream out) throws IOException {
+        out.writeByte(END_OF_RECORDS);
+        out.flush();
+    }
+
+    static List<String[]> readRecords(DataInputStream in) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        for (byte marker = in.readByte(); marker != END_OF_RECORDS; marker = in.readByte()) {
+            if (marker != RECORD) {
+                throw new IOException(String.format("Недопустимое значение в данных соединения (признак записи): %d", marker));
+            }
+            if (records.size() == MAX_RECORD_COUNT) {
+                throw new IOException(String.format("Недопустимое значение в данных соединения (число записей): более %d", MAX_RECORD_COUNT));
+            }
+            String id = readString(in);
+            String address = readString(in);
+            String next = readNullableString(in);
+            records.add(next == null ? new String[] {id, address} : new String[] {id, address, next});
+        }
+        return records;
+    }
+
+    static void writeRoute(DataOutputStream out, List<ImmutablePair<String, String>> route) throws IOException {
+        out.writeByte(STATUS_OK);
+        out.writeInt(route.size());
+        for (ImmutablePair<String, String> node: route) {
+            writeString(out, node.getKey());
+            writeNullableString(out, node.getValue());
+        }
+        out.flush();
+    }
+
+    static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeByte(STATUS_ERROR);
+        writeNullableString(out, message);
+        out.flush();
+    }
+
+    /**
+     * Читает ответ рабочего процесса. Если рабочий процесс сообщил об ошибке, возникает {@link IllegalStateException}.
+     */
+    static List<ImmutablePair<String, String>> readRoute(DataInputStream in) throws IOException {
+        byte status = in.readByte();
+        if (status == STATUS_ERROR) {
+            throw new IllegalStateException(String.format("Ошибка рабочего процесса: %s", readNullableString(in)));
+        }
+        if (status != STATUS_OK) {
+            throw new IOException(String.format("Неизвестный статус ответа рабочего процесса: %d", status));
+        }
+        int count = readSize(in, MAX_RECORD_COUNT, "длина маршрута");
+        List<ImmutablePair<String, String>> route = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = readString(in);
+            route.add(new ImmutablePair<>(id, readNullableString(in)));
+        }
+        return route;
+    }
+
+    private static int readSize(DataInputStream in, int maxSize, String description) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > maxSize) {
+            throw new IOException(String.format("Недопустимое значение в данных соединения (%s): %d", description, size));
+        }
+        return size;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IOException(String.format("Длина строки %d байт превышает допустимую (%d байт).", bytes.length, MAX_STRING_LENGTH));
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readSize(in, MAX_STRING_LENGTH, "длина строки")];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+}
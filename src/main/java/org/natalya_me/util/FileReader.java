@@ -5,6 +5,7 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 /**
  *   Утилитный класс для чтения данных из текстового файла в формате CSV с разделителем ';'.
@@ -24,22 +25,34 @@ public class FileReader {
      * @return         структура List<String[]> с извлеченными данными
      */
     public static List<String[]> readCsvDataFromFile(String filePath) {
+        List<String[]> records = new ArrayList<>();
+        forEachCsvRecord(filePath, records::add);
+        return records;
+    }
+
+    /**
+     * Читает файл построчно и передает значения каждой строки, разделенные по разделителю, в action.
+     * В отличие от {@link #readCsvDataFromFile(String)} строки не накапливаются в памяти, поэтому файл
+     * может быть больше доступной памяти.
+     *
+     * @param filePath путь к текстовому файлу
+     * @param action   обработчик значений строки
+     */
+    public static void forEachCsvRecord(String filePath, Consumer<String[]> action) {
         if (filePath == null) {
             throw new IllegalArgumentException("Путь к файлу не может быть null.");
         }
 
         File file = new File(filePath);
         if (file.isFile() && file.canRead()) {
-            List<String[]> records = new ArrayList<>();
             try (Scanner scanner = new Scanner(file)) {
                 while (scanner.hasNextLine()) {
                     String line = scanner.nextLine();
-                    records.add(line.split(DELIMITER));
+                    action.accept(line.split(DELIMITER));
                 }
             } catch (FileNotFoundException e) {
                 throw new IllegalArgumentException(String.format("Файл %s не найден.", filePath));
             }
-            return records;
         } else {
             throw new IllegalArgumentException(String.format("%s не является корректным путем к файлу, или отсутствует право на чтение.", filePath));
         }
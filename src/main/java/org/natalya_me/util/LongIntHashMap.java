@@ -0,0 +1,204 @@
+package org.natalya_me.util;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица с открытой адресацией (линейное пробирование), отображающая ключи long в значения int.
+ * В отличие от {@code HashMap<Long, Integer>} не создает объектов-оберток и записей на каждый элемент:
+ * ключи и значения хранятся в двух примитивных массивах.
+ * Отрицательные значения не хранятся: значение {@link #NO_VALUE} означает отсутствие ключа в таблице.
+ */
+public final class LongIntHashMap {
+
+    /**
+     * Значение, возвращаемое при отсутствии ключа в таблице.
+     */
+    public static final int NO_VALUE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    // Таблица расширяется, когда заполнено больше половины ячеек
+    private static final int MAX_LOAD_FACTOR_SHIFT = 1;
+    // Ключ, которым помечаются свободные ячейки; сам он хранится отдельно
+    private static final long FREE_KEY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    // Значение для ключа FREE_KEY, если он содержится в таблице
+    private int freeKeyValue = NO_VALUE;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize ожидаемое число элементов, при котором таблица не будет расширяться
+     */
+    public LongIntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(String.format("Недопустимый ожидаемый размер таблицы: %d.", expectedSize));
+        }
+        int capacity = DEFAULT_CAPACITY;
+        while ((capacity >> MAX_LOAD_FACTOR_SHIFT) < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Возвращает значение для ключа key либо {@link #NO_VALUE}, если ключа нет в таблице.
+     */
+    public int get(long key) {
+        if (key == FREE_KEY) {
+            return freeKeyValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == FREE_KEY) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, содержится ли ключ в таблице.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Сохраняет значение value для ключа key.
+     *
+     * @param key     ключ
+     * @param value   неотрицательное значение
+     * @return        предыдущее значение для ключа либо {@link #NO_VALUE}, если ключа не было в таблице
+     */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format("Недопустимое значение для ключа %d: %d.", key, value));
+        }
+        if (key == FREE_KEY) {
+            int previous = freeKeyValue;
+            freeKeyValue = value;
+            if (previous == NO_VALUE) {
+                size++;
+            }
+            return previous;
+        }
+        int slot = slot(key);
+        while (keys[slot] != FREE_KEY) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (keys.length >> MAX_LOAD_FACTOR_SHIFT)) {
+            rehash(keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Удаляет ключ из таблицы.
+     *
+     * @return удаленное значение либо {@link #NO_VALUE}, если ключа не было в таблице
+     */
+    public int remove(long key) {
+        if (key == FREE_KEY) {
+            int previous = freeKeyValue;
+            if (previous != NO_VALUE) {
+                freeKeyValue = NO_VALUE;
+                size--;
+            }
+            return previous;
+        }
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE_KEY) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int previous = values[slot];
+        shiftKeysBack(slot);
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Удаление без надгробий: элементы цепочки пробирования, следующие за освобожденной ячейкой,
+     * сдвигаются назад, если их исходная позиция не лежит между освобожденной ячейкой и текущей.
+     */
+    private void shiftKeysBack(int freedSlot) {
+        int slot = freedSlot;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long current = keys[slot];
+            if (current == FREE_KEY) {
+                break;
+            }
+            int home = slot(current);
+            boolean movable = freedSlot <= slot
+                    ? home <= freedSlot || home > slot
+                    : home <= freedSlot && home > slot;
+            if (movable) {
+                keys[freedSlot] = current;
+                values[freedSlot] = values[slot];
+                freedSlot = slot;
+            }
+        }
+        keys[freedSlot] = FREE_KEY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = slot(key);
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+    }
+
+    // Перемешивание битов ключа (финализатор MurmurHash3), чтобы последовательные идентификаторы не образовывали длинных цепочек
+    private int slot(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53e6da1L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
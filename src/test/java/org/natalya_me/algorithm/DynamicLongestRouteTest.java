@@ -0,0 +1,150 @@
+package org.natalya_me.algorithm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.natalya_me.util.ImmutablePair;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicLongestRouteTest {
+
+    private Graph<String> graph;
+
+    @BeforeEach
+    void initializeGraph() {
+        graph = new Graph<>();
+    }
+
+    @Test
+    void testGetLongestRouteWhenEmptyGraph() {
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        assertEquals(0, route.getLongestRouteLength());
+        assertEquals(Collections.emptyList(), route.getLongestRoute());
+    }
+
+    @Test
+    void testGetLongestRouteWhenBuiltFromExistingGraph() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("4", "3");
+        graph.addArc("3", "5");
+        graph.addOrUpdateNode("1", "data");
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        assertEquals(4, route.getLongestRouteLength());
+        assertEquals(Arrays.asList("1", "2", "3", "5"), routeIds(route));
+        assertEquals("data", route.getLongestRoute().get(0).getValue());
+    }
+
+    @Test
+    void testGetLongestRouteWhenArcsAdded() {
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        graph.addArc("2", "3");
+        assertEquals(Arrays.asList("2", "3"), routeIds(route));
+        graph.addArc("4", "5");
+        graph.addArc("5", "6");
+        assertEquals(Arrays.asList("4", "5", "6"), routeIds(route));
+        graph.addArc("1", "2");
+        graph.addArc("3", "4");
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6"), routeIds(route));
+    }
+
+    @Test
+    void testGetLongestRouteWhenArcRemoved() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("3", "4");
+        graph.addArc("5", "4");
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        graph.removeArc("2", "3");
+        assertEquals(2, route.getLongestRouteLength());
+        graph.addArc("6", "5");
+        assertEquals(Arrays.asList("6", "5", "4"), routeIds(route));
+    }
+
+    @Test
+    void testGetLongestRouteWhenNodeRemoved() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("4", "5");
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        graph.removeNode("2");
+        assertEquals(2, route.getLongestRouteLength());
+        assertEquals(Arrays.asList("4", "5"), routeIds(route));
+        graph.removeNode("4");
+        graph.removeNode("5");
+        graph.removeNode("1");
+        graph.removeNode("3");
+        assertEquals(0, route.getLongestRouteLength());
+    }
+
+    @Test
+    void testGetLongestRouteWhenArcRedirected() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("4", "5");
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        graph.redirectArc("2", "4");
+        assertEquals(Arrays.asList("1", "2", "4", "5"), routeIds(route));
+        assertThrowsExactly(IllegalArgumentException.class, () -> graph.redirectArc("5", "1"));
+        assertEquals(Arrays.asList("1", "2", "4", "5"), routeIds(route));
+        assertThrowsExactly(IllegalArgumentException.class, () -> graph.addArc("5", "2"));
+        assertFalse(graph.arcExists("5", "2"));
+    }
+
+    @Test
+    void testAttachWhenGraphAlreadyTracked() {
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(graph);
+        assertThrowsExactly(IllegalStateException.class, () -> new DynamicLongestRoute<>(graph));
+        route.detach();
+        assertThrowsExactly(IllegalStateException.class, route::getLongestRoute);
+        graph.addArc("1", "2");
+        assertEquals(2, new DynamicLongestRoute<>(graph).getLongestRouteLength());
+    }
+
+    @Test
+    void testRandomMutationsMatchFullSearch() {
+        Random random = new Random(7);
+        Graph<String> numericGraph = new Graph<>(true);
+        DynamicLongestRoute<String> route = new DynamicLongestRoute<>(numericGraph);
+        int idBound = 200;
+        for (int i = 0; i < 5_000; i++) {
+            String from = String.valueOf(random.nextInt(idBound));
+            String to = String.valueOf(random.nextInt(idBound));
+            try {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        numericGraph.addArc(from, to);
+                        break;
+                    case 1:
+                        numericGraph.redirectArc(from, to);
+                        break;
+                    case 2:
+                        numericGraph.removeArc(from, to);
+                        break;
+                    default:
+                        if (random.nextInt(4) == 0) numericGraph.removeNode(from);
+                }
+            } catch (IllegalArgumentException ex) {
+                // петли и циклы отклоняются графом
+            }
+            List<ImmutablePair<String, String>> expected = LongestRouteSearch.findLongestRoute(numericGraph);
+            List<ImmutablePair<String, String>> actual = route.getLongestRoute();
+            assertEquals(expected.size(), route.getLongestRouteLength());
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.isEmpty() || numericGraph.getLeafNodes().stream()
+                    .anyMatch(leaf -> leaf.getId().equals(actual.get(actual.size() - 1).getKey())));
+        }
+    }
+
+    static List<String> routeIds(DynamicLongestRoute<?> route) {
+        return route.getLongestRoute().stream()
+                .map(ImmutablePair::getKey)
+                .collect(Collectors.toList());
+    }
+}
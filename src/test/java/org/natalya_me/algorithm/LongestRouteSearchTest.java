@@ -8,6 +8,7 @@ import org.natalya_me.util.ImmutablePair;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,6 +90,99 @@ public class LongestRouteSearchTest {
                 Arrays.asList("3", "4").equals(result));
     }
 
+    @Test
+    void testFindLongestRouteWhenNumericIds() {
+        Graph<String> numericGraph = new Graph<>(true);
+        numericGraph.addOrUpdateNode("156496", "ул. Малая Химическая, 7а");
+        numericGraph.addArc("156496", "128381");
+        numericGraph.addArc("128381", "100");
+        numericGraph.addArc("7", "100");
+        List<ImmutablePair<String, String>> result = LongestRouteSearch.findLongestRoute(numericGraph);
+        assertEquals(Arrays.asList("156496", "128381", "100"), longestRouteIds(numericGraph));
+        assertEquals("ул. Малая Химическая, 7а", result.get(0).getValue());
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenPredicateNull() {
+        graph.addNode("1");
+        assertThrowsExactly(IllegalArgumentException.class, () -> LongestRouteSearch.findLongestRoute(graph, null));
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenEmptyGraph() {
+        assertEquals(Collections.emptyList(), LongestRouteSearch.findLongestRoute(graph, (id, data) -> true));
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenNoNodeMatches() {
+        graph.addArc("1", "2");
+        assertEquals(Collections.emptyList(), LongestRouteSearch.findLongestRoute(graph, (id, data) -> false));
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenAllNodesMatch() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("4", "3");
+        graph.addArc("3", "5");
+        assertEquals(Arrays.asList("1", "2", "3", "5"), filteredLongestRouteIds(graph, (id, data) -> true));
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenRouteBrokenInTheMiddle() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("3", "4");
+        graph.addArc("4", "5");
+        graph.addArc("5", "6");
+        graph.addArc("6", "7");
+        assertEquals(Arrays.asList("4", "5", "6", "7"), filteredLongestRouteIds(graph, (id, data) -> !id.equals("3")));
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenRouteEndsBeforeLeaf() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("3", "4");
+        graph.addArc("5", "4");
+        assertEquals(Arrays.asList("1", "2", "3"), filteredLongestRouteIds(graph, (id, data) -> !id.equals("4")));
+    }
+
+    @Test
+    void testFindFilteredLongestRouteByData() {
+        graph.addOrUpdateNode("1", "ул. Садовая, 1");
+        graph.addOrUpdateNode("2", "ул. Садовая, 3");
+        graph.addOrUpdateNode("3", "пр. Невский, 10");
+        graph.addOrUpdateNode("4", "ул. Садовая, 5");
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("4", "2");
+        graph.addArc("3", "5");
+        List<ImmutablePair<String, String>> result = LongestRouteSearch.findLongestRoute(graph,
+                (id, data) -> data != null && data.startsWith("ул. Садовая"));
+        assertEquals(2, result.size());
+        assertEquals("2", result.get(1).getKey());
+        assertEquals("ул. Садовая, 3", result.get(1).getValue());
+    }
+
+    @Test
+    void testFindFilteredLongestRouteWhenMultipleQueriesOnOneGraph() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("3", "4");
+        graph.addArc("5", "3");
+        assertEquals(Arrays.asList("1", "2", "3", "4"), filteredLongestRouteIds(graph, (id, data) -> true));
+        assertEquals(Arrays.asList("1", "2"), filteredLongestRouteIds(graph, (id, data) -> Integer.parseInt(id) < 3));
+        assertEquals(Arrays.asList("5", "3", "4"), filteredLongestRouteIds(graph, (id, data) -> Integer.parseInt(id) > 2));
+        assertEquals(Arrays.asList("1", "2", "3", "4"), longestRouteIds(graph));
+    }
+
+    static List<String> filteredLongestRouteIds(Graph<String> graph, BiPredicate<String, String> predicate) {
+        return LongestRouteSearch.findLongestRoute(graph, predicate).stream()
+                .map(ImmutablePair::getKey)
+                .collect(Collectors.toList());
+    }
+
     static List<String> longestRouteIds(Graph<?> graph) {
         return LongestRouteSearch.findLongestRoute(graph).stream()
                 .map(ImmutablePair::getKey)
@@ -159,4 +159,186 @@ public class TestGraph {
         assertTrue(graph.arcExists("1", "2"));
         assertFalse(graph.arcExists("1", "3"));
     }
+
+    @Test
+    void testParseNumericId() {
+        assertEquals(156496L, Graph.parseNumericId("156496"));
+        assertEquals(0L, Graph.parseNumericId("0"));
+        assertEquals(-1L, Graph.parseNumericId(""));
+        assertEquals(-1L, Graph.parseNumericId("007"));
+        assertEquals(-1L, Graph.parseNumericId("-1"));
+        assertEquals(-1L, Graph.parseNumericId("+1"));
+        assertEquals(-1L, Graph.parseNumericId("12a"));
+        assertEquals(-1L, Graph.parseNumericId("1234567890123456789"));
+    }
+
+    @Test
+    void testNumericIdsWhenAllIdsNumeric() {
+        Graph<Object> numericGraph = new Graph<>(true);
+        numericGraph.addOrUpdateNode("156496", "data");
+        assertTrue(numericGraph.addArc("156496", "128381"));
+        assertTrue(numericGraph.usesNumericIds());
+        assertEquals(2, numericGraph.size());
+        assertEquals("data", numericGraph.getData("156496"));
+        assertTrue(numericGraph.arcExists("156496", "128381"));
+        assertTrue(numericGraph.isLeaf("128381"));
+        assertFalse(numericGraph.contains("0156496"));
+        assertFalse(numericGraph.contains("a"));
+        assertTrue(numericGraph.usesNumericIds());
+    }
+
+    @Test
+    void testNumericIdsWhenNonNumericIdAdded() {
+        Graph<Object> numericGraph = new Graph<>(true);
+        numericGraph.addArc("1", "2");
+        numericGraph.addOrUpdateNode("03", "data");
+        assertFalse(numericGraph.usesNumericIds());
+        assertTrue(numericGraph.addArc("2", "03"));
+        assertEquals(3, numericGraph.size());
+        assertTrue(numericGraph.arcExists("1", "2"));
+        assertTrue(numericGraph.arcExists("2", "03"));
+        assertEquals("data", numericGraph.getData("03"));
+        assertFalse(numericGraph.contains("3"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> numericGraph.addArc("03", "1"));
+    }
+
+    @Test
+    void testNumericIdsWhenLongIds() {
+        Graph<Object> numericGraph = new Graph<>(true);
+        numericGraph.addOrUpdateNode(156496L, "data");
+        assertTrue(numericGraph.addArc(156496L, 128381L));
+        assertFalse(numericGraph.addArc(156496L, 1L));
+        assertTrue(numericGraph.usesNumericIds());
+        assertEquals("data", numericGraph.getData("156496"));
+        assertTrue(numericGraph.arcExists("156496", "128381"));
+        assertTrue(numericGraph.contains(128381L));
+        assertFalse(numericGraph.contains(1L));
+        assertThrowsExactly(IllegalArgumentException.class, () -> numericGraph.addArc(128381L, 128381L));
+        assertThrowsExactly(IllegalArgumentException.class, () -> numericGraph.addArc(128381L, 156496L));
+    }
+
+    @Test
+    void testNumericIdsWhenLongIdNotNumeric() {
+        Graph<Object> numericGraph = new Graph<>(true);
+        numericGraph.addArc(1L, 2L);
+        numericGraph.addArc(-3L, 1L);
+        assertFalse(numericGraph.usesNumericIds());
+        assertTrue(numericGraph.arcExists("-3", "1"));
+        assertTrue(numericGraph.addArc(2L, 1_000_000_000_000_000_000L));
+        assertTrue(numericGraph.arcExists("2", "1000000000000000000"));
+        assertTrue(numericGraph.contains(1L));
+        assertEquals(4, numericGraph.size());
+    }
+
+    @Test
+    void testNumericNodeIdNotRetained() {
+        Graph.Node<Object> node = new Graph.Node<>(0, 156496L);
+        String id = node.getId();
+        assertEquals("156496", id);
+        assertEquals(id, node.getId());
+        assertFalse(id == node.getId());
+    }
+
+    @Test
+    void testRemoveArcWhenArcExists() {
+        graph.addArc("1", "2");
+        graph.addArc("3", "2");
+        assertTrue(graph.removeArc("1", "2"));
+        assertFalse(graph.arcExists("1", "2"));
+        assertTrue(graph.arcExists("3", "2"));
+        assertEquals(3, graph.size());
+        assertTrue(graph.isLeaf("1"));
+        assertTrue(graph.addArc("1", "3"));
+    }
+
+    @Test
+    void testRemoveArcWhenArcDoesNotExist() {
+        graph.addArc("1", "2");
+        assertFalse(graph.removeArc("2", "1"));
+        assertFalse(graph.removeArc("1", "3"));
+        assertFalse(graph.removeArc(null, "2"));
+        assertTrue(graph.arcExists("1", "2"));
+    }
+
+    @Test
+    void testRemoveNode() {
+        graph.addArc("1", "2");
+        graph.addArc("3", "2");
+        graph.addArc("2", "4");
+        assertTrue(graph.removeNode("2"));
+        assertFalse(graph.contains("2"));
+        assertEquals(3, graph.size());
+        assertFalse(graph.arcExists("1", "2"));
+        assertTrue(graph.isLeaf("1"));
+        assertTrue(graph.isLeaf("3"));
+        assertTrue(graph.isLeaf("4"));
+        assertEquals(3, graph.getLeafNodes().size());
+        assertEquals(3, graph.getNodes().size());
+        assertEquals(3, graph.getNodes().stream().filter(node -> !node.getId().equals("2")).count());
+        assertFalse(graph.removeNode("2"));
+        graph.addArc("1", "2");
+        assertTrue(graph.arcExists("1", "2"));
+    }
+
+    @Test
+    void testRemoveNodeReusesIndexes() {
+        for (int i = 0; i < 10; i++) {
+            graph.addArc("a" + i, "b" + i);
+        }
+        int bound = graph.getNodeIndexBound();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(graph.removeNode("a" + i));
+            }
+            for (int i = 0; i < 10; i++) {
+                graph.addArc("a" + i, "b" + i);
+            }
+        }
+        assertEquals(bound, graph.getNodeIndexBound());
+        assertEquals(20, graph.size());
+        assertTrue(graph.arcExists("a3", "b3"));
+    }
+
+    @Test
+    void testRemoveNodeWhenNumericIds() {
+        Graph<Object> numericGraph = new Graph<>(true);
+        numericGraph.addArc("1", "2");
+        assertTrue(numericGraph.removeNode("1"));
+        assertFalse(numericGraph.contains("1"));
+        assertEquals(1, numericGraph.size());
+        numericGraph.addNode("a");
+        assertTrue(numericGraph.contains("2"));
+        assertFalse(numericGraph.contains("1"));
+        assertEquals(2, numericGraph.size());
+    }
+
+    @Test
+    void testRedirectArc() {
+        graph.addArc("1", "2");
+        assertTrue(graph.redirectArc("1", "3"));
+        assertFalse(graph.arcExists("1", "2"));
+        assertTrue(graph.arcExists("1", "3"));
+        assertTrue(graph.isLeaf("2"));
+        assertFalse(graph.isLeaf("1"));
+        assertFalse(graph.redirectArc("1", "3"));
+    }
+
+    @Test
+    void testRedirectArcWhenNoOutgoingArc() {
+        graph.addNode("1");
+        assertTrue(graph.redirectArc("1", "2"));
+        assertTrue(graph.arcExists("1", "2"));
+    }
+
+    @Test
+    void testRedirectArcWhenCycle() {
+        graph.addArc("1", "2");
+        graph.addArc("2", "3");
+        graph.addArc("3", "4");
+        assertThrowsExactly(IllegalArgumentException.class, () -> graph.redirectArc("3", "1"));
+        assertTrue(graph.arcExists("3", "4"));
+        assertFalse(graph.arcExists("3", "1"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> graph.redirectArc("3", "3"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> graph.redirectArc(null, "3"));
+    }
 }
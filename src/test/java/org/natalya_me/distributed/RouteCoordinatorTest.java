@@ -0,0 +1,179 @@
+package org.natalya_me.distributed;
+
+import org.junit.jupiter.api.Test;
+import org.natalya_me.algorithm.GraphFactory;
+import org.natalya_me.algorithm.LongestRouteSearch;
+import org.natalya_me.util.FileReader;
+import org.natalya_me.util.ImmutablePair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteCoordinatorTest {
+
+    @Test
+    void testFindLongestRouteWhenNoWorkers() {
+        assertThrowsExactly(IllegalArgumentException.class,
+                () -> RouteCoordinator.findLongestRoute(Collections.emptyList(), Collections.emptyList()));
+    }
+
+    @Test
+    void testFindLongestRouteWhenWorkerDoesNotRespond() throws IOException {
+        List<String[]> records = Collections.singletonList(new String[] {"1", "a", "2"});
+        // сервер принимает соединения, но не отвечает на них
+        try (ServerSocket silentWorker = new ServerSocket(0)) {
+            InetSocketAddress address = new InetSocketAddress("localhost", silentWorker.getLocalPort());
+            UncheckedIOException ex = assertThrowsExactly(UncheckedIOException.class,
+                    () -> RouteCoordinator.findLongestRoute(records, Collections.singletonList(address), 1_000, 300));
+            assertTrue(ex.getMessage().contains(address.toString()));
+        }
+    }
+
+    @Test
+    void testFindLongestRouteWhenWorkerUnavailable() throws IOException {
+        List<String[]> records = Collections.singletonList(new String[] {"1", "a", "2"});
+        InetSocketAddress address;
+        try (ServerSocket closedWorker = new ServerSocket(0)) {
+            address = new InetSocketAddress("localhost", closedWorker.getLocalPort());
+        }
+        InetSocketAddress unavailable = address;
+        UncheckedIOException ex = assertThrowsExactly(UncheckedIOException.class,
+                () -> RouteCoordinator.findLongestRoute(records, Collections.singletonList(unavailable), 1_000, 300));
+        assertTrue(ex.getMessage().contains(unavailable.toString()));
+    }
+
+    @Test
+    void testFindLongestRouteWhenLaterWorkerFails() throws IOException {
+        // первое дерево достается первому рабочему процессу, который не отвечает, второе - рабочему процессу,
+        // который сразу закрывает соединение
+        List<String[]> records = Arrays.asList(new String[] {"1", "a", "2"}, new String[] {"3", "b"});
+        try (ServerSocket silentWorker = new ServerSocket(0); ServerSocket failingWorker = new ServerSocket(0)) {
+            Thread thread = new Thread(() -> {
+                try {
+                    failingWorker.accept().close();
+                } catch (IOException e) {
+                    // сервер закрыт до установления соединения
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            InetSocketAddress failing = new InetSocketAddress("localhost", failingWorker.getLocalPort());
+            List<InetSocketAddress> addresses = Arrays.asList(
+                    new InetSocketAddress("localhost", silentWorker.getLocalPort()), failing);
+            long start = System.nanoTime();
+            UncheckedIOException ex = assertThrowsExactly(UncheckedIOException.class,
+                    () -> RouteCoordinator.findLongestRoute(records, addresses, 1_000, 30_000));
+            assertTrue(System.nanoTime() - start < 10_000_000_000L);
+            assertTrue(ex.getMessage().contains(failing.toString()));
+            // соединение с не отвечающим рабочим процессом закрыто координатором
+            try (Socket socket = silentWorker.accept()) {
+                socket.setSoTimeout(5_000);
+                InputStream in = socket.getInputStream();
+                while (in.read() != -1) {
+                    // пропуск переданной части
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFindLongestRouteWhenInputFile() throws IOException {
+        List<String[]> records = FileReader.readCsvDataFromFile("src/test/resources/input.txt");
+        List<ImmutablePair<String, String>> expected = LongestRouteSearch.findLongestRoute(GraphFactory.createRouteGraph(records));
+        assertEquals(expected, findLongestRouteWithWorkers(records, 3));
+    }
+
+    @Test
+    void testFindLongestRouteWhenInputFilePath() throws IOException {
+        List<String[]> records = FileReader.readCsvDataFromFile("src/test/resources/input.txt");
+        List<ImmutablePair<String, String>> expected = LongestRouteSearch.findLongestRoute(GraphFactory.createRouteGraph(records));
+        List<RouteWorker> workers = startWorkers(2);
+        try {
+            assertEquals(expected, RouteCoordinator.findLongestRoute("src/test/resources/input.txt", addresses(workers)));
+        } finally {
+            closeAll(workers);
+        }
+    }
+
+    @Test
+    void testFindLongestRouteWhenEmptyInput() throws IOException {
+        assertEquals(Collections.emptyList(), findLongestRouteWithWorkers(Collections.emptyList(), 2));
+    }
+
+    @Test
+    void testFindLongestRouteWhenExtraValues() throws IOException {
+        String[] record = new String[17];
+        for (int i = 0; i < record.length; i++) {
+            record[i] = Integer.toString(i + 1);
+        }
+        List<String[]> records = Collections.singletonList(record);
+        assertEquals(LongestRouteSearch.findLongestRoute(GraphFactory.createRouteGraph(records)),
+                findLongestRouteWithWorkers(records, 2));
+    }
+
+    @Test
+    void testFindLongestRouteWhenManyTrees() throws IOException {
+        Random random = new Random(3);
+        List<String[]> records = new ArrayList<>();
+        for (int i = 1; i < 2_000; i++) {
+            // дуги ведут только к вершинам с большим номером, поэтому циклов нет; каждая десятая вершина - висячая
+            if (i % 10 == 0) {
+                records.add(new String[] {String.valueOf(i), "address " + i});
+            } else {
+                records.add(new String[] {String.valueOf(i), "address " + i, String.valueOf(i + 1 + random.nextInt(20))});
+            }
+        }
+        List<ImmutablePair<String, String>> expected = LongestRouteSearch.findLongestRoute(GraphFactory.createRouteGraph(records));
+        List<ImmutablePair<String, String>> result = findLongestRouteWithWorkers(records, 4);
+        assertEquals(expected.size(), result.size());
+        assertEquals("address " + result.get(0).getKey(), result.get(0).getValue());
+    }
+
+    private static List<ImmutablePair<String, String>> findLongestRouteWithWorkers(List<String[]> records, int workerCount) throws IOException {
+        List<RouteWorker> workers = startWorkers(workerCount);
+        try {
+            return RouteCoordinator.findLongestRoute(records, addresses(workers));
+        } finally {
+            closeAll(workers);
+        }
+    }
+
+    private static List<RouteWorker> startWorkers(int workerCount) throws IOException {
+        List<RouteWorker> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                RouteWorker worker = new RouteWorker(0);
+                workers.add(worker);
+                Thread thread = new Thread(worker::serve);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (IOException e) {
+            closeAll(workers);
+            throw e;
+        }
+        return workers;
+    }
+
+    private static List<InetSocketAddress> addresses(List<RouteWorker> workers) {
+        return workers.stream().map(worker -> new InetSocketAddress("localhost", worker.getPort())).collect(Collectors.toList());
+    }
+
+    private static void closeAll(List<RouteWorker> workers) throws IOException {
+        for (RouteWorker worker: workers) {
+            worker.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.natalya_me.distributed;
+
+import org.junit.jupiter.api.Test;
+import org.natalya_me.util.FileReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutePartitionerTest {
+
+    @Test
+    void testAssignShardsWhenInvalidShardCount() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new RoutePartitioner().assignShards(0));
+    }
+
+    @Test
+    void testAddRecordWhenInvalidRecord() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new RoutePartitioner().addRecord(new String[] {"1"}));
+    }
+
+    @Test
+    void testAssignShardsWhenCycle() {
+        List<String[]> records = Arrays.asList(
+                new String[] {"1", "a", "2"},
+                new String[] {"2", "b", "3"},
+                new String[] {"3", "c", "1"});
+        assertThrowsExactly(IllegalArgumentException.class, () -> partition(records, 2));
+    }
+
+    @Test
+    void testAssignShardsWhenSelfLoop() {
+        List<String[]> records = Collections.singletonList(new String[] {"a", "a", "a"});
+        assertThrowsExactly(IllegalArgumentException.class, () -> partition(records, 2));
+    }
+
+    @Test
+    void testGetShardWhenUnknownOrNotAssigned() {
+        RoutePartitioner partitioner = new RoutePartitioner();
+        partitioner.addRecord(new String[] {"1", "a", "2"});
+        assertThrowsExactly(IllegalStateException.class, () -> partitioner.getShard("1"));
+        partitioner.assignShards(2);
+        assertEquals(0, partitioner.getShard("1"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> partitioner.getShard("3"));
+        assertThrowsExactly(IllegalStateException.class, () -> partitioner.addRecord(new String[] {"3", "c"}));
+    }
+
+    @Test
+    void testPartitionKeepsTreesTogether() {
+        List<String[]> records = Arrays.asList(
+                new String[] {"1", "a", "2"},
+                new String[] {"5", "e", "6"},
+                new String[] {"3", "c", "2"},
+                new String[] {"2", "b", "4"},
+                new String[] {"7", "g"},
+                new String[] {"6", "f"});
+        List<List<String>> shards = partition(records, 3);
+        assertEquals(3, shards.size());
+        assertEquals(Arrays.asList("1", "3", "2"), shards.get(0));
+        assertEquals(Arrays.asList("5", "6"), shards.get(1));
+        assertEquals(Collections.singletonList("7"), shards.get(2));
+    }
+
+    @Test
+    void testPartitionBalancesShards() {
+        List<String[]> records = Arrays.asList(
+                new String[] {"1", "a", "2"},
+                new String[] {"2", "b", "3"},
+                new String[] {"4", "d", "5"},
+                new String[] {"6", "f", "7"},
+                new String[] {"8", "h"});
+        List<List<String>> shards = partition(records, 2);
+        assertEquals(Arrays.asList("1", "2", "8"), shards.get(0));
+        assertEquals(Arrays.asList("4", "6"), shards.get(1));
+    }
+
+    @Test
+    void testPartitionWhenMixedIds() {
+        List<String[]> records = Arrays.asList(
+                new String[] {"1", "a", "x"},
+                new String[] {"x", "b", "2"},
+                new String[] {"3", "c", "y"},
+                new String[] {"01", "d", "1"});
+        List<List<String>> shards = partition(records, 2);
+        assertEquals(Arrays.asList("1", "x", "01"), shards.get(0));
+        assertEquals(Collections.singletonList("3"), shards.get(1));
+    }
+
+    @Test
+    void testPartitionWhenMoreShardsThanTrees() {
+        List<String[]> records = FileReader.readCsvDataFromFile("src/test/resources/input.txt");
+        List<List<String>> shards = partition(records, 100);
+        assertEquals(100, shards.size());
+        assertEquals(records.size(), shards.stream().mapToInt(List::size).sum());
+    }
+
+    // Выполняет оба прохода и возвращает идентификаторы записей по частям
+    private static List<List<String>> partition(List<String[]> records, int shardCount) {
+        RoutePartitioner partitioner = new RoutePartitioner();
+        records.forEach(partitioner::addRecord);
+        partitioner.assignShards(shardCount);
+        List<List<String>> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (String[] record: records) {
+            shards.get(partitioner.getShard(record[0])).add(record[0]);
+        }
+        for (int i = 0; i < shardCount; i++) {
+            assertEquals(shards.get(i).size(), partitioner.getShardSize(i));
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,101 @@
+package org.natalya_me.distributed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.natalya_me.util.ImmutablePair;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteWorkerTest {
+
+    private static final List<String[]> VALID_SHARD = Arrays.asList(
+            new String[] {"1", "a", "2"},
+            new String[] {"2", "b"});
+
+    private RouteWorker worker;
+
+    @BeforeEach
+    void startWorker() throws IOException {
+        worker = new RouteWorker(0, 500);
+        Thread thread = new Thread(worker::serve);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    void stopWorker() throws IOException {
+        worker.close();
+    }
+
+    @Test
+    void testShardWhenValid() throws IOException {
+        assertEquals(Arrays.asList(new ImmutablePair<>("1", "a"), new ImmutablePair<>("2", "b")), sendShard(VALID_SHARD));
+    }
+
+    @Test
+    void testShardWhenErrorOnWorker() throws IOException {
+        List<String[]> cycle = Arrays.asList(
+                new String[] {"1", "a", "2"},
+                new String[] {"2", "b", "1"});
+        assertThrowsExactly(IllegalStateException.class, () -> sendShard(cycle));
+        assertEquals(2, sendShard(VALID_SHARD).size());
+    }
+
+    @Test
+    void testWorkerSurvivesMalformedFrame() throws IOException {
+        try (Socket socket = new Socket("localhost", worker.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write("GET / HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertThrowsExactly(IllegalStateException.class, () -> ShardProtocol.readRoute(in));
+        }
+        assertEquals(2, sendShard(VALID_SHARD).size());
+    }
+
+    @Test
+    void testWorkerSurvivesAbortedConnection() throws IOException {
+        try (Socket socket = new Socket("localhost", worker.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeByte(ShardProtocol.RECORD);
+            out.writeInt(3);
+            out.flush();
+        }
+        assertEquals(2, sendShard(VALID_SHARD).size());
+    }
+
+    @Test
+    void testWorkerSurvivesStalledConnection() throws IOException {
+        try (Socket stalled = new Socket("localhost", worker.getPort())) {
+            // соединение открыто, но данные не передаются; после истечения времени ожидания обрабатывается следующее
+            assertEquals(2, sendShard(VALID_SHARD).size());
+        }
+    }
+
+    @Test
+    void testShardWhenEmpty() throws IOException {
+        assertEquals(Collections.emptyList(), sendShard(Collections.emptyList()));
+    }
+
+    private List<ImmutablePair<String, String>> sendShard(List<String[]> records) throws IOException {
+        try (Socket socket = new Socket("localhost", worker.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            for (String[] record: records) {
+                ShardProtocol.writeRecord(out, record);
+            }
+            ShardProtocol.writeEndOfRecords(out);
+            return ShardProtocol.readRoute(new DataInputStream(socket.getInputStream()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.natalya_me.distributed;
+
+import org.junit.jupiter.api.Test;
+import org.natalya_me.util.ImmutablePair;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardProtocolTest {
+
+    @Test
+    void testRouteRoundTripWhenNullAddress() throws IOException {
+        List<ImmutablePair<String, String>> route = Arrays.asList(new ImmutablePair<>("1", "a"), new ImmutablePair<>("2", null));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ShardProtocol.writeRoute(new DataOutputStream(buffer), route);
+        assertEquals(route, ShardProtocol.readRoute(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))));
+    }
+
+    @Test
+    void testRecordsRoundTripWhenExtraValues() throws IOException {
+        String[] record = new String[17];
+        for (int i = 0; i < record.length; i++) {
+            record[i] = Integer.toString(i + 1);
+        }
+        List<String[]> records = roundTrip(Arrays.asList(record, new String[] {"3", "c"}));
+        assertEquals(2, records.size());
+        assertEquals(Arrays.asList("1", "2", "3"), Arrays.asList(records.get(0)));
+        assertEquals(Arrays.asList("3", "c"), Arrays.asList(records.get(1)));
+    }
+
+    @Test
+    void testRecordsRoundTripWhenLongValue() throws IOException {
+        char[] chars = new char[100_000];
+        Arrays.fill(chars, 'ж');
+        String address = new String(chars);
+        List<String[]> records = roundTrip(Collections.singletonList(new String[] {"1", address, "2"}));
+        assertEquals(Arrays.asList("1", address, "2"), Arrays.asList(records.get(0)));
+    }
+
+    @Test
+    void testWriteRecordWhenInvalidRecord() {
+        assertThrowsExactly(IllegalArgumentException.class,
+                () -> ShardProtocol.writeRecord(new DataOutputStream(new ByteArrayOutputStream()), new String[] {"1"}));
+    }
+
+    @Test
+    void testReadRecordsWhenStringTooLong() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(ShardProtocol.RECORD);
+        out.writeInt(ShardProtocol.MAX_STRING_LENGTH + 1);
+        assertThrowsExactly(IOException.class,
+                () -> ShardProtocol.readRecords(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))));
+    }
+
+    @Test
+    void testReadRecordsWhenUnknownMarker() {
+        byte[] frame = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+        assertThrowsExactly(IOException.class,
+                () -> ShardProtocol.readRecords(new DataInputStream(new ByteArrayInputStream(frame))));
+    }
+
+    private static List<String[]> roundTrip(List<String[]> records) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (String[] record: records) {
+            ShardProtocol.writeRecord(out, record);
+        }
+        ShardProtocol.writeEndOfRecords(out);
+        return ShardProtocol.readRecords(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+    }
+}
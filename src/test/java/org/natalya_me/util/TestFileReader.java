@@ -2,6 +2,7 @@ package org.natalya_me.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -27,4 +28,21 @@ public class TestFileReader {
             assertTrue(Arrays.asList(2, 3).contains(arr.length));
         }
     }
+
+    @Test
+    void testForEachCsvRecordWhenFileExists() {
+        List<String[]> result = FileReader.readCsvDataFromFile("src/test/resources/input.txt");
+        List<String[]> streamed = new ArrayList<>();
+        FileReader.forEachCsvRecord("src/test/resources/input.txt", streamed::add);
+        assertEquals(result.size(), streamed.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(Arrays.asList(result.get(i)), Arrays.asList(streamed.get(i)));
+        }
+    }
+
+    @Test
+    void testForEachCsvRecordWhenFilePathDoesNotExist() {
+        assertThrowsExactly(IllegalArgumentException.class,
+                () -> FileReader.forEachCsvRecord("src/test/resources/no_such_file.txt", record -> {}));
+    }
 }
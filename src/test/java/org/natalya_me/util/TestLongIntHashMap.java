@@ -0,0 +1,82 @@
+package org.natalya_me.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLongIntHashMap {
+
+    @Test
+    void testGetWhenEmpty() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertTrue(map.isEmpty());
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(1L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(0L));
+    }
+
+    @Test
+    void testPutAndGet() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(156496L, 0));
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(0L, 1));
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(-5L, 2));
+        assertEquals(3, map.size());
+        assertEquals(0, map.get(156496L));
+        assertEquals(1, map.get(0L));
+        assertEquals(2, map.get(-5L));
+        assertTrue(map.containsKey(0L));
+        assertFalse(map.containsKey(128381L));
+    }
+
+    @Test
+    void testPutWhenKeyExists() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(7L, 1);
+        assertEquals(1, map.put(7L, 2));
+        assertEquals(2, map.get(7L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testPutWhenNegativeValue() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertThrowsExactly(IllegalArgumentException.class, () -> map.put(1L, -1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void testRemove() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 10);
+        map.put(0L, 20);
+        assertEquals(10, map.remove(1L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.remove(1L));
+        assertEquals(20, map.remove(0L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, LongIntHashMap.NO_VALUE), (Integer) map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, LongIntHashMap.NO_VALUE), (Integer) map.put(key, i));
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntHashMap.NO_VALUE), (Integer) map.get(key));
+        }
+    }
+}